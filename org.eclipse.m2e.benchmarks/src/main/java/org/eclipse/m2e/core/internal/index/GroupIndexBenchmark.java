@@ -0,0 +1,92 @@
+/*******************************************************************************
+ * Copyright (c) 2008-2010 Sonatype, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *      Sonatype, Inc. - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.m2e.core.internal.index;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+
+/**
+ * Building the group index of an indexing context and prefix group queries, i.e. groupId content assist. groupIds are
+ * generated with three segments, similar in shape to a central repository index.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class GroupIndexBenchmark {
+
+  @Param({"1000", "50000"})
+  public int groupCount;
+
+  private List<String> groups;
+
+  private Set<String> rootGroups;
+
+  private GroupIndex groupIndex;
+
+  private String[] prefixes;
+
+  private int next;
+
+  @Setup
+  public void setup() {
+    Random random = new Random(1);
+    groups = new ArrayList<String>(groupCount);
+    rootGroups = new LinkedHashSet<String>();
+    for(int i = 0; i < groupCount; i++ ) {
+      String root = "org" + random.nextInt(20);
+      groups.add(root + ".vendor" + random.nextInt(groupCount / 10 + 1) + ".module" + i);
+      rootGroups.add(root);
+    }
+    groupIndex = new GroupIndex(groups, rootGroups);
+
+    prefixes = new String[64];
+    for(int i = 0; i < prefixes.length; i++ ) {
+      String group = groups.get(random.nextInt(groupCount));
+      prefixes[i] = group.substring(0, group.indexOf('.', group.indexOf('.') + 1));
+    }
+  }
+
+  @Benchmark
+  public GroupIndex build() {
+    return new GroupIndex(groups, rootGroups);
+  }
+
+  @Benchmark
+  public List<String> getGroups() {
+    return groupIndex.getGroups(prefixes[next++ & (prefixes.length - 1)], Integer.MAX_VALUE);
+  }
+
+  @Benchmark
+  public List<String> getRootGroups() {
+    return groupIndex.getRootGroups(null, Integer.MAX_VALUE);
+  }
+}
@@ -0,0 +1,77 @@
+/*******************************************************************************
+ * Copyright (c) 2008-2010 Sonatype, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *      Sonatype, Inc. - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.m2e.core.internal.index;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+
+/**
+ * Merging search results of several repository indexes, see {@link CompositeIndex}. Results of the indexes overlap by
+ * about a quarter of their keys, like artifacts mirrored by more than one repository.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SearchResultMergerBenchmark {
+
+  @Param({"2", "8"})
+  public int indexCount;
+
+  @Param({"500", "10000"})
+  public int resultCount;
+
+  private List<Map<String, Object>> results;
+
+  @Setup
+  public void setup() {
+    Random random = new Random(1);
+    results = new ArrayList<Map<String, Object>>(indexCount);
+    for(int i = 0; i < indexCount; i++ ) {
+      Map<String, Object> result = new TreeMap<String, Object>();
+      while(result.size() < resultCount) {
+        int artifact = random.nextInt(resultCount * 4 / 3 * indexCount);
+        result.put("null : null : org.example.g" + (artifact % 100) + " : a" + artifact, Integer.valueOf(i));
+      }
+      results.add(result);
+    }
+  }
+
+  @Benchmark
+  public Map<String, Object> mergeAll() {
+    return SearchResultMerger.merge(results, Integer.MAX_VALUE);
+  }
+
+  @Benchmark
+  public Map<String, Object> mergePage() {
+    return SearchResultMerger.merge(results, 50);
+  }
+}
@@ -0,0 +1,99 @@
+/*******************************************************************************
+ * Copyright (c) 2008-2010 Sonatype, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *      Sonatype, Inc. - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.m2e.core.internal.lifecyclemapping;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.eclipse.m2e.core.internal.lifecyclemapping.model.LifecycleMappingMetadata;
+import org.eclipse.m2e.core.internal.lifecyclemapping.model.LifecycleMappingMetadataSource;
+import org.eclipse.m2e.core.internal.lifecyclemapping.model.PluginExecutionFilter;
+import org.eclipse.m2e.core.internal.lifecyclemapping.model.PluginExecutionMetadata;
+import org.eclipse.m2e.core.project.configurator.MojoExecutionKey;
+
+
+/**
+ * Lifecycle mapping and plugin execution metadata lookups of a metadata source with many plugin execution filters,
+ * several filters per plugin with distinct version ranges and goals.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SimpleMappingMetadataSourceBenchmark {
+
+  private static final int FILTERS_PER_PLUGIN = 4;
+
+  @Param({"100", "2000"})
+  public int pluginCount;
+
+  private SimpleMappingMetadataSource metadataSource;
+
+  private MojoExecutionKey[] executions;
+
+  private String[] packagingTypes;
+
+  private int next;
+
+  @Setup
+  public void setup() {
+    LifecycleMappingMetadataSource source = new LifecycleMappingMetadataSource();
+    for(int i = 0; i < pluginCount; i++ ) {
+      for(int j = 0; j < FILTERS_PER_PLUGIN; j++ ) {
+        PluginExecutionMetadata execution = new PluginExecutionMetadata();
+        execution.setFilter(new PluginExecutionFilter("org.example.plugins", "plugin" + i, "[" + j + ".0," + (j + 1)
+            + ".0)", "goal" + j + ",common"));
+        source.addPluginExecution(execution);
+      }
+      LifecycleMappingMetadata mapping = new LifecycleMappingMetadata();
+      mapping.setPackagingType("packaging" + i);
+      mapping.setLifecycleMappingId("mapping" + i);
+      source.addLifecycleMapping(mapping);
+    }
+    metadataSource = new SimpleMappingMetadataSource(source);
+
+    Random random = new Random(1);
+    executions = new MojoExecutionKey[256];
+    packagingTypes = new String[executions.length];
+    for(int i = 0; i < executions.length; i++ ) {
+      int plugin = random.nextInt(pluginCount);
+      executions[i] = new MojoExecutionKey("org.example.plugins", "plugin" + plugin, random.nextInt(FILTERS_PER_PLUGIN)
+          + ".1", random.nextBoolean() ? "common" : "goal" + random.nextInt(FILTERS_PER_PLUGIN), "compile", "default");
+      packagingTypes[i] = "packaging" + random.nextInt(pluginCount);
+    }
+  }
+
+  @Benchmark
+  public List<PluginExecutionMetadata> getPluginExecutionMetadata() {
+    return metadataSource.getPluginExecutionMetadata(executions[next++ & (executions.length - 1)]);
+  }
+
+  @Benchmark
+  public LifecycleMappingMetadata getLifecycleMappingMetadata() {
+    return metadataSource.getLifecycleMappingMetadata(packagingTypes[next++ & (packagingTypes.length - 1)]);
+  }
+}
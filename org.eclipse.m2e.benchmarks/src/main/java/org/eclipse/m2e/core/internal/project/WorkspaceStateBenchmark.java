@@ -0,0 +1,154 @@
+/*******************************************************************************
+ * Copyright (c) 2008-2010 Sonatype, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *      Sonatype, Inc. - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.m2e.core.internal.project;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.eclipse.m2e.cli.WorkspaceState;
+
+
+/**
+ * Writing the workspace state files and reading them in CLI resolvers. The state of a synthetic workspace is written
+ * to a temporary directory, artifact values point to the directory itself so resolved files exist.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class WorkspaceStateBenchmark {
+
+  @Param({"100", "2000"})
+  public int projectCount;
+
+  private File dir;
+
+  private File propertiesFile;
+
+  private File binaryFile;
+
+  private Map<String, String> state;
+
+  private String[][] keys;
+
+  private int next;
+
+  @Setup
+  public void setup() throws IOException {
+    dir = File.createTempFile("workspacestate", "");
+    dir.delete();
+    dir.mkdirs();
+    propertiesFile = new File(dir, "workspacestate.properties");
+    binaryFile = new File(dir, "workspacestate.bin");
+
+    String path = dir.getCanonicalPath();
+    state = new TreeMap<String, String>();
+    for(int i = 0; i < projectCount; i++ ) {
+      String groupId = "org.example.g" + (i % 20);
+      state.put(groupId + ":project" + i + ":pom:1.0-SNAPSHOT", path);
+      state.put(groupId + ":project" + i + ":jar:1.0-SNAPSHOT", path);
+    }
+    WorkspaceStateFile.writeProperties(state, propertiesFile);
+    WorkspaceStateFile.writeBinary(state, binaryFile);
+
+    Random random = new Random(1);
+    keys = new String[256][];
+    for(int i = 0; i < keys.length; i++ ) {
+      int project = random.nextInt(projectCount);
+      keys[i] = new String[] {"org.example.g" + (project % 20), "project" + project, "jar", "1.0-SNAPSHOT"};
+    }
+  }
+
+  @TearDown
+  public void tearDown() {
+    for(File file : dir.listFiles()) {
+      file.delete();
+    }
+    dir.delete();
+  }
+
+  @Benchmark
+  public void writeProperties() throws IOException {
+    WorkspaceStateFile.writeProperties(state, propertiesFile);
+  }
+
+  @Benchmark
+  public void writeBinary() throws IOException {
+    WorkspaceStateFile.writeBinary(state, binaryFile);
+  }
+
+  /**
+   * State file is read by the first lookup of a launch.
+   */
+  @Benchmark
+  public File readBinary() throws Exception {
+    return readState(binaryFile, propertiesFile);
+  }
+
+  @Benchmark
+  public File readProperties() throws Exception {
+    return readState(null, propertiesFile);
+  }
+
+  @Benchmark
+  public File findArtifact(LoadedState loaded) {
+    String[] key = keys[next++ & (keys.length - 1)];
+    return WorkspaceState.findArtifact(key[0], key[1], key[2], key[3]);
+  }
+
+  /**
+   * Binary state already read by an earlier lookup.
+   */
+  @State(Scope.Benchmark)
+  public static class LoadedState {
+    @Setup(Level.Trial)
+    public void setup(WorkspaceStateBenchmark benchmark) throws Exception {
+      benchmark.readState(benchmark.binaryFile, benchmark.propertiesFile);
+    }
+  }
+
+  File readState(File binary, File properties) throws Exception {
+    if(binary != null) {
+      System.setProperty("m2e.workspace.state.binary", binary.getAbsolutePath());
+    } else {
+      System.clearProperty("m2e.workspace.state.binary");
+    }
+    System.setProperty("m2eclipse.workspace.state", properties.getAbsolutePath());
+    // WorkspaceState reads the state file once per launch
+    Field field = WorkspaceState.class.getDeclaredField("state");
+    field.setAccessible(true);
+    field.set(null, null);
+    String[] key = keys[0];
+    return WorkspaceState.findArtifact(key[0], key[1], key[2], key[3]);
+  }
+}
@@ -8,38 +8,175 @@
 
 package org.eclipse.m2e.cli;
 
-import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
 import java.io.File;
-import java.io.FileInputStream;
+import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.util.Properties;
 
 import org.apache.maven.artifact.Artifact;
 
 
+/**
+ * Workspace state written by m2e WorkspaceStateWriter. The binary state file, m2e.workspace.state.binary system
+ * property, is read into memory and searched in place. The java.util.Properties state file, m2eclipse.workspace.state
+ * system property, is used if the binary state is not available, i.e. when launched by earlier m2e versions.
+ */
 public class WorkspaceState {
-  private static Properties state;
+  /**
+   * "M2WS", must match org.eclipse.m2e.core.internal.project.WorkspaceStateFile
+   */
+  private static final int MAGIC = 0x4D325753;
 
-  public static synchronized Properties getState() {
+  private static final int VERSION = 1;
+
+  private static final String ENCODING = "UTF-8";
+
+  private static final int OPEN_RETRIES = 10;
+
+  private static final long OPEN_RETRY_DELAY = 50L;
+
+  private static State state;
+
+  private static interface State {
+    String get(String key);
+  }
+
+  /**
+   * Sorted binary state, see WorkspaceStateFile for the format.
+   */
+  private static class BinaryState implements State {
+    private final ByteBuffer buf;
+
+    private final int count;
+
+    BinaryState(ByteBuffer buf) throws IOException {
+      if(buf.limit() < 12 || buf.getInt(4) != VERSION) {
+        throw new IOException("Unsupported workspace state file version");
+      }
+      this.buf = buf;
+      this.count = buf.getInt(8);
+    }
+
+    public String get(String key) {
+      try {
+        int low = 0;
+        int high = count - 1;
+        while(low <= high) {
+          int mid = (low + high) >>> 1;
+          int offset = buf.getInt(12 + 4 * mid);
+          int cmp = getString(offset).compareTo(key);
+          if(cmp < 0) {
+            low = mid + 1;
+          } else if(cmp > 0) {
+            high = mid - 1;
+          } else {
+            return getString(offset + 4 + buf.getInt(offset));
+          }
+        }
+      } catch(IndexOutOfBoundsException e) {
+        // corrupted file
+      } catch(UnsupportedEncodingException e) {
+        // can't happen
+      }
+      return null;
+    }
+
+    private String getString(int offset) throws UnsupportedEncodingException {
+      byte[] bytes = new byte[buf.getInt(offset)];
+      ByteBuffer dup = buf.duplicate(); // buffer position is not thread safe
+      dup.position(offset + 4);
+      dup.get(bytes);
+      return new String(bytes, ENCODING);
+    }
+  }
+
+  /**
+   * java.util.Properties state written by earlier m2e versions.
+   */
+  private static class PropertiesState implements State {
+    private final Properties properties;
+
+    PropertiesState(Properties properties) {
+      this.properties = properties;
+    }
+
+    public String get(String key) {
+      return properties.getProperty(key);
+    }
+  }
+
+  private static synchronized State getState() {
     if(state == null) {
-      state = new Properties();
       try {
-        String location = System.getProperty("m2eclipse.workspace.state");
+        String location = System.getProperty("m2e.workspace.state.binary");
         if(location != null) {
-          BufferedInputStream in = new BufferedInputStream(new FileInputStream(location));
-          try {
-            state.load(in);
-          } finally {
-            in.close();
-          }
+          state = readState(new File(location));
+        }
+        location = System.getProperty("m2eclipse.workspace.state");
+        if(state == null && location != null) {
+          state = readState(new File(location));
         }
       } catch(IOException e) {
         // XXX log
       }
+      if(state == null) {
+        state = new PropertiesState(new Properties());
+      }
     }
     return state;
   }
 
+  /**
+   * Returns null if the file does not exist. The file may be briefly missing while m2e replaces it on platforms that
+   * can't rename over an existing file, so opening the file is retried a few times before giving up.
+   */
+  private static State readState(File file) throws IOException {
+    RandomAccessFile raf = null;
+    for(int i = 0; raf == null; i++ ) {
+      try {
+        raf = new RandomAccessFile(file, "r");
+      } catch(FileNotFoundException e) {
+        if(i >= OPEN_RETRIES) {
+          return null;
+        }
+        try {
+          Thread.sleep(OPEN_RETRY_DELAY);
+        } catch(InterruptedException ex) {
+          Thread.currentThread().interrupt();
+          return null;
+        }
+      }
+    }
+
+    ByteBuffer buf;
+    try {
+      // the file is not memory mapped, mapped files can't be replaced on Windows while the launch is running
+      FileChannel channel = raf.getChannel();
+      buf = ByteBuffer.allocate((int) channel.size());
+      while(buf.hasRemaining() && channel.read(buf) > -1) {
+        // read the whole file
+      }
+      buf.flip();
+    } finally {
+      raf.close();
+    }
+
+    if(buf.limit() >= 4 && buf.getInt(0) == MAGIC) {
+      return new BinaryState(buf);
+    }
+
+    Properties properties = new Properties();
+    InputStream in = new ByteArrayInputStream(buf.array(), 0, buf.limit());
+    properties.load(in);
+    return new PropertiesState(properties);
+  }
+
   public static boolean resolveArtifact(Artifact artifact) {
     String extension = artifact.getArtifactHandler().getExtension();
     File file = findArtifact(artifact.getGroupId(), artifact.getArtifactId(), extension, artifact.getBaseVersion());
@@ -54,13 +191,13 @@ public class WorkspaceState {
   }
 
   public static File findArtifact(String groupId, String artifactId, String type, String baseVersion) {
-    Properties state = getState();
+    State state = getState();
     if(state == null) {
       return null;
     }
 
     String key = groupId + ':' + artifactId + ':' + type + ':' + baseVersion;
-    String value = state.getProperty(key);
+    String value = state.get(key);
 
     if(value == null || value.length() == 0) {
       return null;
@@ -1,7 +1,6 @@
 package org.eclipse.m2e.cliresolver;
 
 import java.util.List;
-import java.util.Properties;
 
 import org.apache.maven.artifact.Artifact;
 import org.apache.maven.artifact.repository.ArtifactRepository;
@@ -28,12 +27,6 @@ public class EclipseWorkspaceArtifactResolver extends DefaultArtifactResolver {
 	}
 
 	private boolean resolveAsEclipseProject(Artifact artifact) {
-		Properties state = WorkspaceState.getState();
-
-		if (state == null) {
-			return false;
-		}
-
 		if (artifact == null) {
 			// according to the DefaultArtifactResolver source code, it looks
 			// like artifact can be null
@@ -8,8 +8,6 @@
 
 package org.eclipse.m2e.cliresolver30;
 
-import java.util.Properties;
-
 import org.apache.maven.artifact.Artifact;
 import org.apache.maven.repository.LocalArtifactRepository;
 import org.codehaus.plexus.component.annotations.Component;
@@ -25,12 +23,6 @@ public final class EclipseWorkspaceArtifactRepository
 
     protected boolean resolveAsEclipseProject( Artifact artifact )
     {
-        Properties state = WorkspaceState.getState();
-
-        if (state == null) {
-            return false;
-        }
-
         if (artifact == null) {
             // according to the DefaultArtifactResolver source code, it looks
             // like artifact can be null
@@ -290,6 +290,8 @@ public class Messages extends NLS {
 
   public static String MavenPomSelectionComponent_results;
 
+  public static String MavenPomSelectionComponent_results_limited;
+
   public static String MavenPomSelectionComponent_search_title;
 
   public static String MavenPomSelectionComponent_searching;
@@ -28,6 +28,7 @@ import org.eclipse.m2e.core.index.IndexedArtifactFile;
 import org.eclipse.m2e.core.index.MatchTyped.MatchType;
 import org.eclipse.m2e.core.index.MatchTypedStringSearchExpression;
 import org.eclipse.m2e.core.index.SearchExpression;
+import org.eclipse.m2e.core.internal.index.CompositeIndex;
 
 
 /**
@@ -104,6 +105,13 @@ public class IndexSearchEngine implements SearchEngine {
     try {
       TreeSet<String> ids = new TreeSet<String>();
 
+      if(index instanceof CompositeIndex && packaging.toSearchExpression() == null) {
+        // sorted groupIds of the indexes, no need to search artifacts
+        ids.addAll(((CompositeIndex) index).getGroups(isBlank(searchExpression) ? null : searchExpression,
+            Integer.MAX_VALUE));
+        return subSet(ids, searchExpression);
+      }
+
       SearchExpression groupSearchExpression = isBlank(searchExpression) ? null : new MatchTypedStringSearchExpression(
           searchExpression, MatchType.PARTIAL);
 
@@ -43,6 +43,7 @@ import org.eclipse.m2e.core.index.IndexManager;
 import org.eclipse.m2e.core.index.IndexedArtifact;
 import org.eclipse.m2e.core.index.IndexedArtifactFile;
 import org.eclipse.m2e.core.index.UserInputSearchExpression;
+import org.eclipse.m2e.core.internal.index.CompositeIndex;
 import org.eclipse.m2e.core.ui.internal.Messages;
 import org.eclipse.m2e.core.ui.internal.MavenImages;
 import org.eclipse.osgi.util.NLS;
@@ -117,6 +118,11 @@ public class MavenPomSelectionComponent extends Composite {
   private static final long SHORT_DELAY = 150L;
 
   private static final long LONG_DELAY = 500L;
+
+  /**
+   * Maximum number of search results shown
+   */
+  private static final int MAX_RESULTS = 500;
   
   final HashSet<String> artifactKeys = new HashSet<String>();
   final HashSet<String> managedKeys = new HashSet<String>();
@@ -379,7 +385,14 @@ public class MavenPomSelectionComponent extends Composite {
           setResult(IStatus.OK, NLS.bind(Messages.MavenPomSelectionComponent_searching, activeQuery.toLowerCase()),
               null);
 
-          Map<String, IndexedArtifact> res = indexManager.getAllIndexes().search( new UserInputSearchExpression(activeQuery), field, classifier);
+          IIndex index = indexManager.getAllIndexes();
+          Map<String, IndexedArtifact> res;
+          if(index instanceof CompositeIndex) {
+            res = ((CompositeIndex) index).search(new UserInputSearchExpression(activeQuery), field, classifier,
+                MAX_RESULTS);
+          } else {
+            res = index.search(new UserInputSearchExpression(activeQuery), field, classifier);
+          }
           
           //335139 have the managed entries always come up as first results
           LinkedHashMap<String, IndexedArtifact> managed = new LinkedHashMap<String, IndexedArtifact>();
@@ -393,7 +406,9 @@ public class MavenPomSelectionComponent extends Composite {
             }
           }
           managed.putAll(nonManaged);
-          setResult(IStatus.OK, NLS.bind(Messages.MavenPomSelectionComponent_results, activeQuery, res.size()), managed);
+          String message = res.size() < MAX_RESULTS ? Messages.MavenPomSelectionComponent_results
+              : Messages.MavenPomSelectionComponent_results_limited;
+          setResult(IStatus.OK, NLS.bind(message, activeQuery, res.size()), managed);
         } catch(BooleanQuery.TooManyClauses ex) {
           setResult(IStatus.ERROR, Messages.MavenPomSelectionComponent_toomany,
               Collections.<String, IndexedArtifact> emptyMap());
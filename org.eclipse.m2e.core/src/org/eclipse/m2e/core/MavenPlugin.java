@@ -66,6 +66,7 @@ import org.eclipse.m2e.core.internal.index.NexusIndexManager;
 import org.eclipse.m2e.core.internal.markers.IMavenMarkerManager;
 import org.eclipse.m2e.core.internal.markers.MavenMarkerManager;
 import org.eclipse.m2e.core.internal.preferences.MavenConfigurationImpl;
+import org.eclipse.m2e.core.internal.project.LifecycleMappingConfiguration;
 import org.eclipse.m2e.core.internal.project.ProjectConfigurationManager;
 import org.eclipse.m2e.core.internal.project.WorkspaceStateWriter;
 import org.eclipse.m2e.core.internal.project.registry.ProjectRegistryManager;
@@ -210,7 +211,8 @@ public class MavenPlugin extends Plugin {
     this.configurationManager = new ProjectConfigurationManager(maven, managerImpl, modelManager,
         mavenMarkerManager, mavenConfiguration);
     this.projectManager.addMavenProjectChangedListener(this.configurationManager);
-    workspace.addResourceChangeListener(configurationManager, IResourceChangeEvent.PRE_DELETE);
+    workspace.addResourceChangeListener(configurationManager, IResourceChangeEvent.PRE_DELETE
+        | IResourceChangeEvent.POST_CHANGE);
 
     //create repository registry
     this.repositoryRegistry = new RepositoryRegistry(maven, projectManager);
@@ -219,7 +221,7 @@ public class MavenPlugin extends Plugin {
 
     //create the index manager
     this.indexManager = new NexusIndexManager(projectManager, repositoryRegistry, stateLocationDir);
-    this.projectManager.addMavenProjectChangedListener(indexManager);
+    this.projectManager.addMavenProjectChangedListener(indexManager, true /*async*/);
     this.maven.addLocalRepositoryListener(new IndexingTransferListener(indexManager));
     this.repositoryRegistry.addRepositoryIndexer(indexManager);
     this.repositoryRegistry.addRepositoryDiscoverer(new IndexesExtensionReader(indexManager));
@@ -259,6 +261,9 @@ public class MavenPlugin extends Plugin {
     workspace.removeResourceChangeListener(this.mavenBackgroundJob);
     this.mavenBackgroundJob = null;
 
+    // asynchronous listeners, i.e. index manager, must not run after the plugin is stopped
+    this.managerImpl.dispose();
+
     this.projectManager.removeMavenProjectChangedListener(this.configurationManager);
     this.projectManager.removeMavenProjectChangedListener(indexManager);
     this.projectManager.removeMavenProjectChangedListener(repositoryRegistry);
@@ -269,6 +274,7 @@ public class MavenPlugin extends Plugin {
 
     workspace.removeResourceChangeListener(configurationManager);
     this.configurationManager = null;
+    LifecycleMappingConfiguration.dispose();
 
     plugin = null;
   }
@@ -56,6 +56,8 @@ public class ExtensionReader {
 
   private static final String ELEMENT_LISTENER = "listener"; //$NON-NLS-1$
 
+  private static final String ATTR_ASYNC = "async"; //$NON-NLS-1$
+
   public static List<ArchetypeCatalogFactory> readArchetypeExtensions() {
     List<ArchetypeCatalogFactory> archetypeCatalogs = new ArrayList<ArchetypeCatalogFactory>();
 
@@ -105,7 +107,11 @@ public class ExtensionReader {
     return null;
   }
 
-  public static List<IMavenProjectChangedListener> readProjectChangedEventListenerExtentions() {
+  /**
+   * Returns project changed listeners contributed via extension point that declare (async=true) or do not declare
+   * (async=false) asynchronous notification.
+   */
+  public static List<IMavenProjectChangedListener> readProjectChangedEventListenerExtentions(boolean async) {
     ArrayList<IMavenProjectChangedListener> listeners = new ArrayList<IMavenProjectChangedListener>();
 
     IExtensionRegistry registry = Platform.getExtensionRegistry();
@@ -115,7 +121,8 @@ public class ExtensionReader {
       for(IExtension extension : mappingsExtensions) {
         IConfigurationElement[] elements = extension.getConfigurationElements();
         for(IConfigurationElement element : elements) {
-          if(element.getName().equals(ELEMENT_LISTENER)) {
+          if(element.getName().equals(ELEMENT_LISTENER)
+              && Boolean.parseBoolean(element.getAttribute(ATTR_ASYNC)) == async) {
             try {
               listeners.add( (IMavenProjectChangedListener) element.createExecutableExtension("class") ); //$NON-NLS-1$
             } catch(CoreException ex) {
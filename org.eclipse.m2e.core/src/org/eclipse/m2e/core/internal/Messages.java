@@ -78,6 +78,8 @@ public class Messages extends NLS {
 
   public static String LifecycleMappingPluginVersionIncompatible;
 
+  public static String LifecycleMappingConfigurationStore_job_title;
+
   public static String PluginExecutionMappingDuplicate;
 
   public static String PluginExecutionMappingInvalid;
@@ -192,6 +194,8 @@ public class Messages extends NLS {
 
   public static String PomFileContentDescriber_error;
 
+  public static String ProjectChangeDispatcher_job_title;
+
   public static String ProjectConfigurationManager_0;
 
   public static String ProjectConfigurationManager_error_failed;
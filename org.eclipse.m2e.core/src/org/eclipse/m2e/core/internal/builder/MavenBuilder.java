@@ -53,6 +53,7 @@ import org.eclipse.m2e.core.core.IMavenConstants;
 import org.eclipse.m2e.core.embedder.IMaven;
 import org.eclipse.m2e.core.embedder.IMavenConfiguration;
 import org.eclipse.m2e.core.internal.M2EUtils;
+import org.eclipse.m2e.core.internal.embedder.MavenImpl;
 import org.eclipse.m2e.core.internal.markers.IMavenMarkerManager;
 import org.eclipse.m2e.core.internal.markers.SourceLocation;
 import org.eclipse.m2e.core.internal.markers.SourceLocationHelper;
@@ -89,8 +90,19 @@ public class MavenBuilder extends IncrementalProjectBuilder {
    * @see org.eclipse.core.internal.events.InternalBuilder#build(int,
    *      java.util.Map, org.eclipse.core.runtime.IProgressMonitor)
    */
-  @SuppressWarnings("unchecked")
   protected IProject[] build(int kind, Map args, IProgressMonitor monitor) throws CoreException {
+    // share repository caches among all maven sessions created during the build
+    MavenImpl maven = (MavenImpl) MavenPlugin.getDefault().getMaven();
+    maven.openSessionScope();
+    try {
+      return build(kind, monitor);
+    } finally {
+      maven.closeSessionScope();
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private IProject[] build(int kind, IProgressMonitor monitor) throws CoreException {
     IProject project = getProject();
     log.debug("Building project {}", project.getName()); //$NON-NLS-1$
     long start = System.currentTimeMillis();
@@ -135,13 +135,18 @@ import org.apache.maven.settings.crypto.SettingsDecryptionResult;
 import org.apache.maven.settings.io.SettingsWriter;
 import org.apache.maven.wagon.proxy.ProxyInfo;
 
+import org.sonatype.aether.RepositoryCache;
 import org.sonatype.aether.RepositorySystemSession;
+import org.sonatype.aether.SessionData;
 import org.sonatype.aether.repository.LocalRepository;
 import org.sonatype.aether.resolution.ArtifactRequest;
 import org.sonatype.aether.resolution.ArtifactResolutionException;
 import org.sonatype.aether.resolution.ArtifactResult;
 import org.sonatype.aether.transfer.ArtifactNotFoundException;
 import org.sonatype.aether.transfer.TransferListener;
+import org.sonatype.aether.util.DefaultRepositoryCache;
+import org.sonatype.aether.util.DefaultRepositorySystemSession;
+import org.sonatype.aether.util.DefaultSessionData;
 
 import org.eclipse.m2e.core.MavenPlugin;
 import org.eclipse.m2e.core.core.IMavenConstants;
@@ -174,6 +179,23 @@ public class MavenImpl implements IMaven, IMavenConfigurationChangeListener {
 
   private final ArrayList<ILocalRepositoryListener> localRepositoryListeners = new ArrayList<ILocalRepositoryListener>();
 
+  /**
+   * Effective settings built from current global and user settings.xml files, null if settings need to be rebuilt.
+   */
+  private volatile SettingsSnapshot settingsSnapshot;
+
+  private final Object sessionScopeLock = new Object();
+
+  /**
+   * Number of open session scopes, guarded by sessionScopeLock
+   */
+  private int sessionScopeCount;
+
+  /**
+   * Repository caches shared by repository sessions created while session scope is open, null if no scope is open
+   */
+  private volatile SessionScope sessionScope;
+
   public MavenImpl(IMavenConfiguration mavenConfiguration) {
     this.mavenConfiguration = mavenConfiguration;
     mavenConfiguration.addConfigurationChangeListener(this);
@@ -259,13 +281,52 @@ public class MavenImpl implements IMaven, IMavenConfigurationChangeListener {
 
   private RepositorySystemSession createRepositorySession(MavenExecutionRequest request) {
     try {
-      return ((DefaultMaven) lookup(Maven.class)).newRepositorySession(request);
+      RepositorySystemSession session = ((DefaultMaven) lookup(Maven.class)).newRepositorySession(request);
+      if(session instanceof DefaultRepositorySystemSession) {
+        joinSessionScope((DefaultRepositorySystemSession) session);
+      }
+      return session;
     } catch(CoreException ex) {
       log.error(ex.getMessage(), ex);
       throw new IllegalStateException("Could not look up Maven embedder", ex);
     }
   }
 
+  /**
+   * Opens repository session scope. Until the scope is closed, all repository sessions created by this instance,
+   * including sessions used by {@link #createSession(MavenExecutionRequest, MavenProject)}, #readProject and #resolve
+   * methods, share the same repository cache and session data, so repository metadata, version range and artifact
+   * descriptor information is only read once per scope. Scopes can be nested and opened from multiple threads,
+   * caches are discarded when the last open scope is closed. Each call to this method must be matched by a call to
+   * {@link #closeSessionScope()}, normally from a finally block.
+   */
+  public void openSessionScope() {
+    synchronized(sessionScopeLock) {
+      if(sessionScopeCount++ == 0) {
+        sessionScope = new SessionScope();
+      }
+    }
+  }
+
+  public void closeSessionScope() {
+    synchronized(sessionScopeLock) {
+      if(sessionScopeCount <= 0) {
+        throw new IllegalStateException("Session scope is not open"); //$NON-NLS-1$
+      }
+      if(--sessionScopeCount == 0) {
+        sessionScope = null;
+      }
+    }
+  }
+
+  private void joinSessionScope(DefaultRepositorySystemSession session) {
+    SessionScope scope = sessionScope;
+    if(scope != null) {
+      session.setCache(scope.cache);
+      session.setData(scope.data);
+    }
+  }
+
   public void execute(MavenSession session, MojoExecution execution, IProgressMonitor monitor) {
     try {
       lookup(BuildPluginManager.class).executeMojo(session, execution);
@@ -343,17 +404,35 @@ public class MavenImpl implements IMaven, IMavenConfigurationChangeListener {
     }
   }
 
+  /**
+   * Returns effective settings. Settings are built once and shared by all callers until either of the settings.xml
+   * files changes or {@link #reloadSettings()} is called, callers must not modify returned settings.
+   */
   public Settings getSettings() throws CoreException {
+    String globalSettings = mavenConfiguration.getGlobalSettingsFile();
+    String userSettings = mavenConfiguration.getUserSettingsFile();
+
+    SettingsSnapshot snapshot = settingsSnapshot;
+    if(snapshot == null || !snapshot.isUpToDate(globalSettings, userSettings)) {
+      // stamps are taken before settings are read, so concurrent changes to the files cause another rebuild
+      snapshot = new SettingsSnapshot(globalSettings, userSettings);
+      snapshot.settings = readSettings(globalSettings, userSettings);
+      settingsSnapshot = snapshot;
+    }
+    return snapshot.settings;
+  }
+
+  private Settings readSettings(String globalSettings, String userSettings) throws CoreException {
     // MUST NOT use createRequest!
 
     // TODO: Can't that delegate to buildSettings()?
     SettingsBuildingRequest request = new DefaultSettingsBuildingRequest();
     request.setSystemProperties(System.getProperties());
-    if(mavenConfiguration.getGlobalSettingsFile() != null) {
-      request.setGlobalSettingsFile(new File(mavenConfiguration.getGlobalSettingsFile()));
+    if(globalSettings != null) {
+      request.setGlobalSettingsFile(new File(globalSettings));
     }
-    if(mavenConfiguration.getUserSettingsFile() != null) {
-      request.setUserSettingsFile(new File(mavenConfiguration.getUserSettingsFile()));
+    if(userSettings != null) {
+      request.setUserSettingsFile(new File(userSettings));
     }
     try {
       return lookup(SettingsBuilder.class).build(request).getEffectiveSettings();
@@ -413,7 +492,7 @@ public class MavenImpl implements IMaven, IMavenConfigurationChangeListener {
   }
 
   public void reloadSettings() throws CoreException {
-    // TODO do something more meaningful
+    settingsSnapshot = null;
     Settings settings = getSettings();
     for(ISettingsChangeListener listener : settingsListeners) {
       try {
@@ -567,6 +646,7 @@ public class MavenImpl implements IMaven, IMavenConfigurationChangeListener {
     session.setLocalRepositoryManager(repoSystem.newLocalRepositoryManager(new LocalRepository(localRepository
         .getBasedir())));
     session.setTransferListener(createArtifactTransferListener(monitor));
+    joinSessionScope(session);
 
     ArtifactRequest request = new ArtifactRequest();
     request.setArtifact(RepositoryUtils.toArtifact(artifact));
@@ -830,7 +910,10 @@ public class MavenImpl implements IMaven, IMavenConfigurationChangeListener {
 
   @SuppressWarnings("deprecation")
   public void xxxRemoveExtensionsRealm(MavenProject project) {
-    ClassRealm realm = project.getClassRealm();
+    xxxRemoveExtensionsRealm(project.getClassRealm());
+  }
+
+  public void xxxRemoveExtensionsRealm(ClassRealm realm) {
     if(realm != null && realm != plexus.getContainerRealm()) {
       ClassWorld world = ((MutablePlexusContainer) plexus).getClassWorld();
       try {
@@ -1112,4 +1195,54 @@ public class MavenImpl implements IMaven, IMavenConfigurationChangeListener {
     };
     lookup(ModelInterpolator.class).interpolateModel(model, project.getBasedir(), request, problems);
   }
+
+  /**
+   * Effective settings along with paths, sizes and modification timestamps of settings.xml files they were built from.
+   */
+  private static class SettingsSnapshot {
+    private final String globalSettings;
+
+    private final String userSettings;
+
+    private final long[] globalStamp;
+
+    private final long[] userStamp;
+
+    Settings settings;
+
+    SettingsSnapshot(String globalSettings, String userSettings) {
+      this.globalSettings = globalSettings;
+      this.userSettings = userSettings;
+      this.globalStamp = getStamp(globalSettings);
+      this.userStamp = getStamp(userSettings);
+    }
+
+    boolean isUpToDate(String globalSettings, String userSettings) {
+      return eq(this.globalSettings, globalSettings) && eq(this.userSettings, userSettings)
+          && Arrays.equals(globalStamp, getStamp(globalSettings)) && Arrays.equals(userStamp, getStamp(userSettings));
+    }
+
+    private static long[] getStamp(String path) {
+      if(path == null) {
+        return null;
+      }
+      File file = new File(path);
+      // lastModified and length are both 0 for files that do not exist
+      return new long[] {file.lastModified(), file.length()};
+    }
+
+    private static boolean eq(String a, String b) {
+      return a != null ? a.equals(b) : b == null;
+    }
+  }
+
+  /**
+   * Repository cache and session data shared by repository sessions created within session scope. Both are thread
+   * safe.
+   */
+  private static class SessionScope {
+    final RepositoryCache cache = new DefaultRepositoryCache();
+
+    final SessionData data = new DefaultSessionData();
+  }
 }
@@ -12,28 +12,63 @@
 package org.eclipse.m2e.core.internal.index;
 
 import java.io.File;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
 
+import org.eclipse.m2e.core.core.IMavenConstants;
 import org.eclipse.m2e.core.embedder.ArtifactKey;
 import org.eclipse.m2e.core.index.IIndex;
 import org.eclipse.m2e.core.index.IndexedArtifact;
 import org.eclipse.m2e.core.index.IndexedArtifactFile;
+import org.eclipse.m2e.core.index.MatchTyped.MatchType;
+import org.eclipse.m2e.core.index.MatchTypedStringSearchExpression;
 import org.eclipse.m2e.core.index.SearchExpression;
+import org.eclipse.m2e.core.internal.Messages;
 
 
 /**
  * CompositeIndex
- * 
+ * <p>
+ * Searches all underlying indexes concurrently on a small shared thread pool. Indexes that do not return results
+ * within the search timeout are skipped and the search returns results of the remaining indexes. Search results are
+ * merged in key order and merging stops once the requested number of results is collected.
+ *
  * @author igor
  */
 public class CompositeIndex implements IIndex {
+  private static final Logger log = LoggerFactory.getLogger(CompositeIndex.class);
+
+  /**
+   * System property that controls how long, in milliseconds, searches wait for results of underlying indexes.
+   */
+  public static final String P_SEARCH_TIMEOUT = "m2e.index.search.timeout"; //$NON-NLS-1$
+
+  private static final long SEARCH_TIMEOUT = Long.getLong(P_SEARCH_TIMEOUT, 30000L).longValue();
+
+  private static final int SEARCH_THREADS = 4;
+
+  private static ExecutorService executor;
 
   private List<IIndex> indexes;
 
@@ -67,11 +102,14 @@ public class CompositeIndex implements IIndex {
     return null;
   }
 
-  public Collection<IndexedArtifact> find(SearchExpression groupId, SearchExpression artifactId,
-      SearchExpression version, SearchExpression packaging) throws CoreException {
+  public Collection<IndexedArtifact> find(final SearchExpression groupId, final SearchExpression artifactId,
+      final SearchExpression version, final SearchExpression packaging) throws CoreException {
     Set<IndexedArtifact> result = new TreeSet<IndexedArtifact>();
-    for(IIndex index : indexes) {
-      Collection<IndexedArtifact> findResults = index.find(groupId, artifactId, version, packaging);
+    for(Collection<IndexedArtifact> findResults : invokeAll(new IndexQuery<Collection<IndexedArtifact>>() {
+      public Collection<IndexedArtifact> query(IIndex index) throws CoreException {
+        return index.find(groupId, artifactId, version, packaging);
+      }
+    })) {
       if(findResults != null) {
         result.addAll(findResults);
       }
@@ -82,38 +120,180 @@ public class CompositeIndex implements IIndex {
   public Collection<IndexedArtifact> find(Collection<SearchExpression> groupId,
       Collection<SearchExpression> artifactId, Collection<SearchExpression> version,
       Collection<SearchExpression> packaging) throws CoreException {
-    
+    return find(groupId, artifactId, version, packaging, Integer.MAX_VALUE);
+  }
+
+  /**
+   * Returns at most <code>limit</code> artifacts matching the search expressions. Repository indexes contribute their
+   * <code>limit</code> most relevant artifacts, the smallest of these are returned.
+   */
+  public Collection<IndexedArtifact> find(final Collection<SearchExpression> groupId,
+      final Collection<SearchExpression> artifactId, final Collection<SearchExpression> version,
+      final Collection<SearchExpression> packaging, final int limit) throws CoreException {
+
     Set<IndexedArtifact> result = new TreeSet<IndexedArtifact>();
-    for(IIndex index : indexes) {
-      Collection<IndexedArtifact> findResults = index.find(groupId, artifactId, version, packaging);
+    for(Collection<IndexedArtifact> findResults : invokeAll(new IndexQuery<Collection<IndexedArtifact>>() {
+      public Collection<IndexedArtifact> query(IIndex index) throws CoreException {
+        if(index instanceof NexusIndex) {
+          return ((NexusIndex) index).find(groupId, artifactId, version, packaging, 0, limit);
+        }
+        return index.find(groupId, artifactId, version, packaging);
+      }
+    })) {
       if(findResults != null) {
         result.addAll(findResults);
       }
     }
+    if(result.size() > limit) {
+      List<IndexedArtifact> page = new ArrayList<IndexedArtifact>(limit);
+      for(Iterator<IndexedArtifact> i = result.iterator(); page.size() < limit; ) {
+        page.add(i.next());
+      }
+      return page;
+    }
     return result;
   }
 
-  public Map<String, IndexedArtifact> search(SearchExpression term, String searchType) throws CoreException {
-    Map<String, IndexedArtifact> result = new TreeMap<String, IndexedArtifact>();
-    for(IIndex index : indexes) {
-      Map<String, IndexedArtifact> iresult = index.search(term, searchType);
-      if(iresult != null) {
-        result.putAll(iresult);
+  public Map<String, IndexedArtifact> search(final SearchExpression term, final String searchType)
+      throws CoreException {
+    return SearchResultMerger.merge(invokeAll(new IndexQuery<Map<String, IndexedArtifact>>() {
+      public Map<String, IndexedArtifact> query(IIndex index) throws CoreException {
+        return index.search(term, searchType);
       }
-    }
-    return result;
+    }), Integer.MAX_VALUE);
   }
 
   public Map<String, IndexedArtifact> search(SearchExpression term, String searchType, int classifier)
       throws CoreException {
-    Map<String, IndexedArtifact> result = new TreeMap<String, IndexedArtifact>();
-    for(IIndex index : indexes) {
-      Map<String, IndexedArtifact> iresult = index.search(term, searchType, classifier);
-      if(iresult != null) {
-        result.putAll(iresult);
+    return search(term, searchType, classifier, Integer.MAX_VALUE);
+  }
+
+  /**
+   * Returns at most <code>limit</code> search results. Repository indexes contribute their <code>limit</code> most
+   * relevant results, these are merged and the lexicographically first <code>limit</code> keys are returned. Results
+   * are not paged, as relevance of results of different indexes can't be compared.
+   */
+  public Map<String, IndexedArtifact> search(final SearchExpression term, final String searchType,
+      final int classifier, final int limit) throws CoreException {
+    return SearchResultMerger.merge(invokeAll(new IndexQuery<Map<String, IndexedArtifact>>() {
+      public Map<String, IndexedArtifact> query(IIndex index) throws CoreException {
+        if(index instanceof NexusIndex) {
+          return ((NexusIndex) index).search(term, searchType, classifier, 0, limit);
+        }
+        return index.search(term, searchType, classifier);
+      }
+    }), limit);
+  }
+
+  /**
+   * Returns up to <code>limit</code> groupIds of all indexes that start with the prefix, in lexicographical order.
+   * Repository indexes look groupIds up in their sorted group index, other indexes, i.e. the workspace index, are
+   * searched for artifacts with a matching groupId.
+   */
+  public List<String> getGroups(final String prefix, final int limit) throws CoreException {
+    Set<String> result = new TreeSet<String>();
+    for(List<String> groups : invokeAll(new IndexQuery<List<String>>() {
+      public List<String> query(IIndex index) throws CoreException {
+        if(index instanceof NexusIndex) {
+          return ((NexusIndex) index).getGroups(prefix, limit);
+        }
+        SearchExpression groupId = prefix == null || prefix.length() == 0 ? null
+            : new MatchTypedStringSearchExpression(prefix, MatchType.PARTIAL);
+        List<String> groups = new ArrayList<String>();
+        for(IndexedArtifact artifact : index.find(groupId, null, null, null)) {
+          if(prefix == null || artifact.getGroupId().startsWith(prefix)) {
+            groups.add(artifact.getGroupId());
+          }
+        }
+        return groups;
+      }
+    })) {
+      if(groups != null) {
+        result.addAll(groups);
       }
     }
-    return result;
+    List<String> page = new ArrayList<String>(Math.min(limit, result.size()));
+    for(Iterator<String> i = result.iterator(); i.hasNext() && page.size() < limit;) {
+      page.add(i.next());
+    }
+    return page;
+  }
+
+  private static interface IndexQuery<T> {
+    T query(IIndex index) throws CoreException;
+  }
+
+  /**
+   * Runs the query against all indexes concurrently and returns results in index order. Results of indexes that did
+   * not complete before the search timeout are omitted.
+   */
+  private <T> List<T> invokeAll(final IndexQuery<T> query) throws CoreException {
+    List<T> results = new ArrayList<T>(indexes.size());
+    if(indexes.size() == 1) {
+      results.add(query.query(indexes.get(0)));
+      return results;
+    }
+
+    List<Future<T>> futures = new ArrayList<Future<T>>(indexes.size());
+    for(final IIndex index : indexes) {
+      futures.add(getExecutor().submit(new Callable<T>() {
+        public T call() throws CoreException {
+          return query.query(index);
+        }
+      }));
+    }
+
+    long deadline = System.currentTimeMillis() + SEARCH_TIMEOUT;
+    try {
+      for(int i = 0; i < futures.size(); i++ ) {
+        Future<T> future = futures.get(i);
+        try {
+          results.add(future.get(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS));
+        } catch(TimeoutException ex) {
+          future.cancel(true);
+          log.info("Search of {} did not complete in {} ms, search results are incomplete", indexes.get(i), //$NON-NLS-1$
+              SEARCH_TIMEOUT);
+        }
+      }
+    } catch(ExecutionException ex) {
+      Throwable cause = ex.getCause();
+      if(cause instanceof CoreException) {
+        throw (CoreException) cause;
+      }
+      if(cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      if(cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw new CoreException(new Status(IStatus.ERROR, IMavenConstants.PLUGIN_ID, -1,
+          Messages.NexusIndexManager_error_search, cause));
+    } catch(InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new CoreException(new Status(IStatus.ERROR, IMavenConstants.PLUGIN_ID, -1,
+          Messages.NexusIndexManager_error_search, ex));
+    } finally {
+      for(Future<T> future : futures) {
+        future.cancel(true); // noop for completed queries
+      }
+    }
+    return results;
   }
 
+  private static synchronized ExecutorService getExecutor() {
+    if(executor == null) {
+      executor = Executors.newFixedThreadPool(SEARCH_THREADS, new SearchThreadFactory());
+    }
+    return executor;
+  }
+
+  private static class SearchThreadFactory implements ThreadFactory {
+    private static final AtomicInteger count = new AtomicInteger();
+
+    public Thread newThread(Runnable runnable) {
+      Thread thread = new Thread(runnable, "M2E index search " + count.incrementAndGet()); //$NON-NLS-1$
+      thread.setDaemon(true);
+      return thread;
+    }
+  }
 }
@@ -0,0 +1,260 @@
+/*******************************************************************************
+ * Copyright (c) 2008-2010 Sonatype, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *      Sonatype, Inc. - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.m2e.core.internal.index;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.codehaus.plexus.util.IOUtil;
+
+
+/**
+ * SHA-1 checksums of local files, typically artifacts in the local repository.
+ * <p>
+ * Entries are keyed by canonical file path and remember length and last modification time of the file, a checksum is
+ * only calculated again if either of them changed. Entries are persisted in the state location as an append-only
+ * file, one line per calculated checksum, which is rewritten with current entries only when it accumulated many
+ * obsolete lines. Entries of files that no longer exist are dropped when the cache is loaded and saved. Checksums
+ * are calculated outside of the cache lock, so concurrent lookups of different files do not wait for each other.
+ *
+ * @author igor
+ */
+public class FileChecksumCache {
+  private static final Logger log = LoggerFactory.getLogger(FileChecksumCache.class);
+
+  private static final String ENCODING = "UTF-8"; //$NON-NLS-1$
+
+  private static final int BUFFER_SIZE = 256 * 1024;
+
+  private static final ThreadLocal<ByteBuffer> buffers = new ThreadLocal<ByteBuffer>() {
+    protected ByteBuffer initialValue() {
+      return ByteBuffer.allocateDirect(BUFFER_SIZE);
+    }
+  };
+
+  private static final char[] DIGITS = "0123456789abcdef".toCharArray(); //$NON-NLS-1$
+
+  private final File cacheFile;
+
+  /**
+   * Guarded by this
+   */
+  private final Map<String, Entry> entries = new HashMap<String, Entry>();
+
+  /**
+   * Number of lines in the cache file, guarded by this
+   */
+  private int lines;
+
+  private boolean loaded;
+
+  private static class Entry {
+    final long length;
+
+    final long lastModified;
+
+    final String sha1;
+
+    Entry(long length, long lastModified, String sha1) {
+      this.length = length;
+      this.lastModified = lastModified;
+      this.sha1 = sha1;
+    }
+
+    boolean isUpToDate(File file) {
+      return file.length() == length && file.lastModified() == lastModified;
+    }
+  }
+
+  public FileChecksumCache(File cacheFile) {
+    this.cacheFile = cacheFile;
+  }
+
+  /**
+   * Returns hex encoded SHA-1 checksum of the file contents.
+   */
+  public String getSha1(File file) throws IOException {
+    file = file.getCanonicalFile();
+    String path = file.getPath();
+
+    Entry entry = getEntry(path);
+    if(entry != null && entry.isUpToDate(file)) {
+      return entry.sha1;
+    }
+
+    long length = file.length();
+    long lastModified = file.lastModified();
+    String sha1 = sha1(file);
+    if(file.length() == length && file.lastModified() == lastModified) {
+      // file did not change while it was read
+      putEntry(path, new Entry(length, lastModified, sha1));
+    }
+    return sha1;
+  }
+
+  private synchronized Entry getEntry(String path) {
+    if(!loaded) {
+      load();
+      loaded = true;
+    }
+    return entries.get(path);
+  }
+
+  private synchronized void putEntry(String path, Entry entry) {
+    entries.put(path, entry);
+    if(lines > 1000 && lines > entries.size() * 2) {
+      save();
+    } else {
+      append(path, entry);
+    }
+  }
+
+  static String sha1(File file) throws IOException {
+    MessageDigest digest;
+    try {
+      digest = MessageDigest.getInstance("SHA-1"); //$NON-NLS-1$
+    } catch(NoSuchAlgorithmException ex) {
+      throw new IOException("Unable to calculate digest");
+    }
+
+    ByteBuffer buffer = buffers.get();
+    FileInputStream is = new FileInputStream(file);
+    try {
+      FileChannel channel = is.getChannel();
+      buffer.clear();
+      while(channel.read(buffer) > -1) {
+        buffer.flip();
+        digest.update(buffer);
+        buffer.clear();
+      }
+    } finally {
+      IOUtil.close(is);
+    }
+
+    return encode(digest.digest());
+  }
+
+  static String encode(byte[] digest) {
+    char[] buff = new char[digest.length * 2];
+
+    int n = 0;
+
+    for(byte b : digest) {
+      buff[n++ ] = DIGITS[(0xF0 & b) >> 4];
+      buff[n++ ] = DIGITS[0x0F & b];
+    }
+
+    return new String(buff);
+  }
+
+  private void load() {
+    if(!cacheFile.isFile()) {
+      return;
+    }
+    try {
+      BufferedReader r = new BufferedReader(new InputStreamReader(new FileInputStream(cacheFile), ENCODING));
+      try {
+        String line;
+        while((line = r.readLine()) != null) {
+          lines++ ;
+          // <sha1>:<length>:<lastModified>:<path>
+          String[] parts = line.split(":", 4); //$NON-NLS-1$
+          if(parts.length != 4) {
+            continue;
+          }
+          try {
+            entries.put(parts[3], new Entry(Long.parseLong(parts[1]), Long.parseLong(parts[2]), parts[0]));
+          } catch(NumberFormatException ex) {
+            // ignore corrupted entry, i.e. partially written last line
+          }
+        }
+        removeMissingFiles();
+      } finally {
+        IOUtil.close(r);
+      }
+    } catch(IOException ex) {
+      log.warn("Could not read checksum cache " + cacheFile, ex);
+    }
+  }
+
+  private void append(String path, Entry entry) {
+    try {
+      cacheFile.getParentFile().mkdirs();
+      Writer w = new OutputStreamWriter(new FileOutputStream(cacheFile, true), ENCODING);
+      try {
+        write(w, path, entry);
+      } finally {
+        IOUtil.close(w);
+      }
+      lines++ ;
+    } catch(IOException ex) {
+      log.warn("Could not write checksum cache " + cacheFile, ex);
+    }
+  }
+
+  private void save() {
+    removeMissingFiles();
+    File tmpFile = new File(cacheFile.getParentFile(), cacheFile.getName() + ".tmp"); //$NON-NLS-1$
+    try {
+      Writer w = new OutputStreamWriter(new FileOutputStream(tmpFile), ENCODING);
+      try {
+        for(Map.Entry<String, Entry> entry : entries.entrySet()) {
+          write(w, entry.getKey(), entry.getValue());
+        }
+      } finally {
+        IOUtil.close(w);
+      }
+      if(!tmpFile.renameTo(cacheFile)) {
+        // can't rename over existing file on some platforms
+        cacheFile.delete();
+        if(!tmpFile.renameTo(cacheFile)) {
+          throw new IOException("Could not rename " + tmpFile + " to " + cacheFile);
+        }
+      }
+      lines = entries.size();
+    } catch(IOException ex) {
+      log.warn("Could not write checksum cache " + cacheFile, ex);
+    }
+  }
+
+  /**
+   * Drops entries of deleted or renamed files, obsolete lines are dropped from the cache file by the next save.
+   */
+  private void removeMissingFiles() {
+    Iterator<String> paths = entries.keySet().iterator();
+    while(paths.hasNext()) {
+      if(!new File(paths.next()).isFile()) {
+        paths.remove();
+      }
+    }
+  }
+
+  private static void write(Writer w, String path, Entry entry) throws IOException {
+    w.write(entry.sha1 + ":" + entry.length + ":" + entry.lastModified + ":" + path + "\n"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+  }
+}
@@ -0,0 +1,88 @@
+/*******************************************************************************
+ * Copyright (c) 2008-2010 Sonatype, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *      Sonatype, Inc. - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.m2e.core.internal.index;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+
+/**
+ * Immutable, sorted snapshot of groupIds of an indexing context. Groups that start with a prefix are located by binary
+ * search and returned as views of the sorted array, so prefix queries do not scan or copy all groups of the index.
+ *
+ * @author igor
+ */
+class GroupIndex {
+
+  private final String[] groups;
+
+  private final String[] rootGroups;
+
+  public GroupIndex(Collection<String> groups, Collection<String> rootGroups) {
+    this.groups = sort(groups);
+    this.rootGroups = sort(rootGroups);
+  }
+
+  private static String[] sort(Collection<String> strings) {
+    String[] sorted = strings.toArray(new String[strings.size()]);
+    Arrays.sort(sorted);
+    return sorted;
+  }
+
+  /**
+   * Returns up to <code>limit</code> groups that start with the prefix in lexicographical order. All groups are matched
+   * if prefix is null or empty.
+   */
+  public List<String> getGroups(String prefix, int limit) {
+    return range(groups, prefix, limit);
+  }
+
+  /**
+   * Returns up to <code>limit</code> root groups, i.e. first segments of groupIds, that start with the prefix in
+   * lexicographical order.
+   */
+  public List<String> getRootGroups(String prefix, int limit) {
+    return range(rootGroups, prefix, limit);
+  }
+
+  private static List<String> range(String[] sorted, String prefix, int limit) {
+    int from = 0;
+    int to = sorted.length;
+    if(prefix != null && prefix.length() > 0) {
+      from = lowerBound(sorted, prefix);
+      int n = prefix.length();
+      char last = prefix.charAt(n - 1);
+      if(last < Character.MAX_VALUE) {
+        // all strings that start with the prefix sort before the prefix with its last character incremented
+        to = lowerBound(sorted, prefix.substring(0, n - 1) + (char) (last + 1));
+      } else {
+        to = from;
+        while(to < sorted.length && sorted[to].startsWith(prefix)) {
+          to++ ;
+        }
+      }
+    }
+    if(to - from > limit) {
+      to = from + limit;
+    }
+    return Arrays.asList(sorted).subList(from, to);
+  }
+
+  /**
+   * Returns index of the first element that is not less than the key
+   */
+  private static int lowerBound(String[] sorted, String key) {
+    int index = Arrays.binarySearch(sorted, key);
+    return index >= 0 ? index : -index - 1;
+  }
+}
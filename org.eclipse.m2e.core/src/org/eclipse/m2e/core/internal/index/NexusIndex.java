@@ -14,6 +14,7 @@ package org.eclipse.m2e.core.internal.index;
 import java.io.File;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 
 import org.eclipse.core.runtime.CoreException;
@@ -105,6 +106,16 @@ public class NexusIndex implements IIndex, IMutableIndex {
   public Collection<IndexedArtifact> find(Collection<SearchExpression> groupId,
       Collection<SearchExpression> artifactId, Collection<SearchExpression> version,
       Collection<SearchExpression> packaging) throws CoreException {
+    return find(groupId, artifactId, version, packaging, 0, Integer.MAX_VALUE);
+  }
+
+  /**
+   * Returns one page of artifacts matching the search expressions, see
+   * {@link NexusIndexManager#search(IRepository, SearchExpression, String, int, int, int)}
+   */
+  public Collection<IndexedArtifact> find(Collection<SearchExpression> groupId,
+      Collection<SearchExpression> artifactId, Collection<SearchExpression> version,
+      Collection<SearchExpression> packaging, int offset, int limit) throws CoreException {
     BooleanQuery query = new BooleanQuery();
 
     addQueryFromSearchExpressionCollection(query, MAVEN.PACKAGING, packaging);
@@ -115,7 +126,7 @@ public class NexusIndex implements IIndex, IMutableIndex {
 
     addQueryFromSearchExpressionCollection(query, MAVEN.VERSION, version);
 
-    return indexManager.search(repository, query).values();
+    return indexManager.search(repository, query, offset, limit).values();
   }
 
   private void addQueryFromSearchExpressionCollection(final BooleanQuery query, final Field field,
@@ -153,6 +164,14 @@ public class NexusIndex implements IIndex, IMutableIndex {
     return indexManager.getRootIndexedArtifactGroups(repository);
   }
 
+  /**
+   * Returns up to <code>limit</code> groupIds that start with the prefix, see
+   * {@link NexusIndexManager#getGroups(IRepository, String, int)}
+   */
+  public List<String> getGroups(String prefix, int limit) throws CoreException {
+    return indexManager.getGroups(repository, prefix, limit);
+  }
+
   public boolean isUpdating() {
     return indexManager.isUpdatingIndex(repository);
   }
@@ -177,4 +196,13 @@ public class NexusIndex implements IIndex, IMutableIndex {
       throws CoreException {
     return indexManager.search(getRepository(), term, searchType, classifier);
   }
+
+  /**
+   * Returns one page of search results, see
+   * {@link NexusIndexManager#search(IRepository, SearchExpression, String, int, int, int)}
+   */
+  public Map<String, IndexedArtifact> search(SearchExpression term, String searchType, int classifier, int offset,
+      int limit) throws CoreException {
+    return indexManager.search(getRepository(), term, searchType, classifier, offset, limit);
+  }
 }
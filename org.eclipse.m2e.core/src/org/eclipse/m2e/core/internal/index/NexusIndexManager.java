@@ -18,12 +18,11 @@ import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -31,7 +30,8 @@ import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
 import java.util.TreeMap;
-import java.util.WeakHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -47,7 +47,6 @@ import org.eclipse.osgi.util.NLS;
 import org.codehaus.plexus.PlexusContainer;
 import org.codehaus.plexus.component.repository.exception.ComponentLookupException;
 import org.codehaus.plexus.util.FileUtils;
-import org.codehaus.plexus.util.IOUtil;
 
 import org.apache.lucene.search.BooleanClause;
 import org.apache.lucene.search.BooleanClause.Occur;
@@ -69,6 +68,7 @@ import org.apache.maven.index.NexusIndexer;
 import org.apache.maven.index.SearchType;
 import org.apache.maven.index.artifact.Gav;
 import org.apache.maven.index.artifact.IllegalArtifactCoordinateException;
+import org.apache.maven.index.context.DefaultIndexingContext;
 import org.apache.maven.index.context.IndexCreator;
 import org.apache.maven.index.context.IndexingContext;
 import org.apache.maven.index.creator.JarFileContentsIndexCreator;
@@ -148,9 +148,11 @@ public class NexusIndexManager implements IndexManager, IMavenProjectChangedList
 
   private final File baseIndexDir;
 
+  private final FileChecksumCache checksumCache;
+
   private final List<IndexListener> indexListeners = new ArrayList<IndexListener>();
 
-  private NexusIndex localIndex;
+  private volatile NexusIndex localIndex;
 
   private final NexusIndex workspaceIndex;
 
@@ -165,17 +167,36 @@ public class NexusIndexManager implements IndexManager, IMavenProjectChangedList
   private static final EquinoxLocker locker = new EquinoxLocker();
 
   /**
-   * Maps repository UID to the lock object associated with the repository. Entries are only added but never directly
-   * removed from the map, although jvm garbage collector may remove otherwise unused entries to reclaim the little
-   * memory they use. Never access this map directly. #getIndexLock must be used to get repository lock object.
+   * Maps repository UID to the locks associated with the repository. Entries are only added but never removed from the
+   * map, there is one entry per repository ever indexed. Never access this map directly. #getIndexLock must be used to
+   * get repository locks.
+   */
+  private final Map<String, IndexLock> indexLocks = new HashMap<String, IndexLock>();
+
+  /**
+   * Repository index locks. Searches hold the read lock of the repository, changes to the indexing context hold the
+   * write lock, so searches of a repository run concurrently with each other and only wait for index changes. Index
+   * updates are serialized by the update lock, which is acquired before the write lock. Long running parts of index
+   * updates, i.e. download and unpacking of remote indexes and scanning of the local repository, only hold the update
+   * lock.
+   * <p>
+   * Sorted groupIds of the indexing context are built on first use under the read lock and cleared whenever the
+   * write lock is acquired to change the indexing context.
    */
-  private final Map<String, Object> indexLocks = new WeakHashMap<String, Object>();
+  private static class IndexLock {
+    final ReentrantReadWriteLock access = new ReentrantReadWriteLock();
+
+    final ReentrantLock update = new ReentrantLock();
+
+    volatile GroupIndex groups;
+  }
 
   public NexusIndexManager(MavenProjectManager projectManager,
       IRepositoryRegistry repositoryRegistry, File stateDir) {
     this.projectManager = projectManager;
     this.repositoryRegistry = repositoryRegistry;
     this.baseIndexDir = new File(stateDir, "nexus"); //$NON-NLS-1$
+    this.checksumCache = new FileChecksumCache(new File(stateDir, "checksums.txt")); //$NON-NLS-1$
 
     this.maven = MavenPlugin.getDefault().getMaven();
     this.indexUpdater = MavenPlugin.getDefault().getIndexUpdater();
@@ -242,11 +263,15 @@ public class NexusIndexManager implements IndexManager, IMavenProjectChangedList
         query.add(constructQuery(MAVEN.CLASSIFIER, gav.getClassifier(), SearchType.EXACT), BooleanClause.Occur.MUST);
       }
 
-      synchronized(getIndexLock(repository)) {
+      ReentrantReadWriteLock.ReadLock lock = getIndexLock(repository).access.readLock();
+      lock.lock();
+      try {
         ArtifactInfo artifactInfo = getIndexer().identify(query, Collections.singleton(getIndexingContext(repository)));
         if(artifactInfo != null) {
           return getIndexedArtifactFile(artifactInfo);
         }
+      } finally {
+        lock.unlock();
       }
     } catch(Exception ex) {
       String msg = "Illegal artifact coordinate " + ex.getMessage();
@@ -286,7 +311,7 @@ public class NexusIndexManager implements IndexManager, IMavenProjectChangedList
 
   public IndexedArtifactFile identify(File file) throws CoreException {
     try {
-      ArtifactInfo artifactInfo = getIndexer().identify(file);
+      ArtifactInfo artifactInfo = identify(file, getIndexer().getIndexingContexts().values());
       return artifactInfo == null ? null : getIndexedArtifactFile(artifactInfo);
     } catch(IOException ex) {
       throw new CoreException(new Status(IStatus.ERROR, IMavenConstants.PLUGIN_ID, -1,
@@ -342,6 +367,15 @@ public class NexusIndexManager implements IndexManager, IMavenProjectChangedList
     return search(null, term, type, classifier);
   }
 
+  /**
+   * Returns one page of search results of all repository indexes. See
+   * {@link #search(IRepository, SearchExpression, String, int, int, int)}
+   */
+  public Map<String, IndexedArtifact> search(SearchExpression term, String type, int classifier, int offset, int limit)
+      throws CoreException {
+    return search(null, term, type, classifier, offset, limit);
+  }
+
   private void addClassifiersToQuery(BooleanQuery bq, int classifier) {
     boolean includeJavaDocs = (classifier & IIndex.SEARCH_JAVADOCS) > 0;
     Query tq = null;
@@ -366,6 +400,18 @@ public class NexusIndexManager implements IndexManager, IMavenProjectChangedList
    */
   protected Map<String, IndexedArtifact> search(IRepository repository, SearchExpression term, String type,
       int classifier) throws CoreException {
+    return search(repository, term, type, classifier, 0, Integer.MAX_VALUE);
+  }
+
+  /**
+   * Returns one page of search results. Search hits are grouped by artifact in order of hit relevance, the first
+   * <code>offset</code> groups are skipped and at most <code>limit</code> groups are returned. Returned artifacts
+   * include all their matching files, files are only created for hits of returned artifacts.
+   * 
+   * @return Map<String, IndexedArtifact>
+   */
+  protected Map<String, IndexedArtifact> search(IRepository repository, SearchExpression term, String type,
+      int classifier, int offset, int limit) throws CoreException {
     Query query;
     if(IIndex.SEARCH_GROUP.equals(type)) {
       query = constructQuery(MAVEN.GROUP_ID, term);
@@ -427,33 +473,32 @@ public class NexusIndexManager implements IndexManager, IMavenProjectChangedList
     Map<String, IndexedArtifact> result = new TreeMap<String, IndexedArtifact>();
 
     try {
-      IteratorSearchResponse response;
-
-      synchronized(getIndexLock(repository)) {
+      ReentrantReadWriteLock.ReadLock lock = getIndexLock(repository).access.readLock();
+      lock.lock();
+      try {
         IndexingContext context = getIndexingContext(repository);
-        if(context == null) {
-          response = getIndexer().searchIterator(new IteratorSearchRequest(query));
-        } else {
-          response = getIndexer().searchIterator(new IteratorSearchRequest(query, context));
-        }
-
-        for(ArtifactInfo artifactInfo : response.getResults()) {
-          addArtifactFile(result, getIndexedArtifactFile(artifactInfo), null, null, artifactInfo.packaging);
-        }
+        int skipped = addArtifactFiles(result, query, context, offset, limit);
 
         // https://issues.sonatype.org/browse/MNGECLIPSE-1630
         // lucene can't handle prefix queries that match many index entries.
         // to workaround, use term query to locate group artifacts and manually
         // match subgroups
         if(IIndex.SEARCH_GROUP.equals(type) && context != null) {
-          Set<String> groups = context.getAllGroups();
-          for(String group : groups) {
-            if(term == null || group.startsWith(term.getStringValue()) && !group.equals(term.getStringValue())) {
+          String prefix = term != null ? term.getStringValue() : null;
+          for(String group : getGroupIndex(repository, context).getGroups(prefix, Integer.MAX_VALUE)) {
+            if(result.size() >= limit) {
+              break;
+            }
+            if(!group.equals(prefix)) {
               String key = getArtifactFileKey(group, group, null, null);
-              result.put(key, new IndexedArtifact(group, group, null, null, null));
+              if(!result.containsKey(key) && skipped++ >= offset) {
+                result.put(key, new IndexedArtifact(group, group, null, null, null));
+              }
             }
           }
         }
+      } finally {
+        lock.unlock();
       }
     } catch(IOException ex) {
       throw new CoreException(new Status(IStatus.ERROR, IMavenConstants.PLUGIN_ID, -1,
@@ -475,28 +520,85 @@ public class NexusIndexManager implements IndexManager, IMavenProjectChangedList
    * @return Map<String, IndexedArtifact>
    */
   protected Map<String, IndexedArtifact> search(IRepository repository, Query query) throws CoreException {
+    return search(repository, query, 0, Integer.MAX_VALUE);
+  }
+
+  /**
+   * Returns one page of search results, see {@link #search(IRepository, SearchExpression, String, int, int, int)}
+   * 
+   * @return Map<String, IndexedArtifact>
+   */
+  protected Map<String, IndexedArtifact> search(IRepository repository, Query query, int offset, int limit)
+      throws CoreException {
     Map<String, IndexedArtifact> result = new TreeMap<String, IndexedArtifact>();
     try {
-      IteratorSearchResponse response;
+      ReentrantReadWriteLock.ReadLock lock = getIndexLock(repository).access.readLock();
+      lock.lock();
+      try {
+        addArtifactFiles(result, query, getIndexingContext(repository), offset, limit);
+      } finally {
+        lock.unlock();
+      }
+    } catch(IOException ex) {
+      throw new CoreException(new Status(IStatus.ERROR, IMavenConstants.PLUGIN_ID, -1,
+          Messages.NexusIndexManager_error_search, ex));
+    }
+    return result;
+  }
 
-      synchronized(getIndexLock(repository)) {
-        IndexingContext context = getIndexingContext(repository);
-        if(context == null) {
-          response = getIndexer().searchIterator(new IteratorSearchRequest(query));
-        } else {
-          response = getIndexer().searchIterator(new IteratorSearchRequest(query, context));
+  /**
+   * Adds search hits to the result, grouped by artifact in order of hit relevance. The first <code>offset</code>
+   * artifacts are skipped and hits are read until the result has <code>limit</code> artifacts. Remaining matching files
+   * of the returned artifacts are then found with a query per artifact, so lower ranked hits of other artifacts are
+   * never read.
+   * 
+   * @param context indexing context to search, all indexing contexts if null
+   * @return number of skipped artifacts
+   */
+  private int addArtifactFiles(Map<String, IndexedArtifact> result, Query query, IndexingContext context, int offset,
+      int limit) throws IOException {
+    Set<String> skipped = new HashSet<String>();
+    boolean full = false;
+    for(ArtifactInfo artifactInfo : searchIterator(query, context).getResults()) {
+      String key = getArtifactFileKey(artifactInfo.groupId, artifactInfo.artifactId, null, null);
+      if(!result.containsKey(key)) {
+        if(skipped.contains(key)) {
+          continue;
+        }
+        if(skipped.size() < offset) {
+          skipped.add(key);
+          continue;
+        }
+        if(result.size() >= limit) {
+          full = true;
+          break;
         }
       }
+      addArtifactFile(result, getIndexedArtifactFile(artifactInfo), null, null, artifactInfo.packaging);
+    }
 
-      for(ArtifactInfo artifactInfo : response.getResults()) {
-        addArtifactFile(result, getIndexedArtifactFile(artifactInfo), null, null, artifactInfo.packaging);
+    if(full) {
+      // lower ranked hits may still be files of artifacts already in the result
+      for(IndexedArtifact artifact : result.values()) {
+        BooleanQuery bq = new BooleanQuery();
+        bq.add(query, Occur.MUST);
+        bq.add(constructQuery(MAVEN.GROUP_ID, artifact.getGroupId(), SearchType.EXACT), Occur.MUST);
+        bq.add(constructQuery(MAVEN.ARTIFACT_ID, artifact.getArtifactId(), SearchType.EXACT), Occur.MUST);
+        for(ArtifactInfo artifactInfo : searchIterator(bq, context).getResults()) {
+          // files are a set, files already in the result are not added again
+          artifact.addFile(getIndexedArtifactFile(artifactInfo));
+        }
       }
+    }
 
-    } catch(IOException ex) {
-      throw new CoreException(new Status(IStatus.ERROR, IMavenConstants.PLUGIN_ID, -1,
-          Messages.NexusIndexManager_error_search, ex));
+    return skipped.size();
+  }
+
+  private IteratorSearchResponse searchIterator(Query query, IndexingContext context) throws IOException {
+    if(context == null) {
+      return getIndexer().searchIterator(new IteratorSearchRequest(query));
     }
-    return result;
+    return getIndexer().searchIterator(new IteratorSearchRequest(query, context));
   }
 
   private void addArtifactFile(Map<String, IndexedArtifact> result, IndexedArtifactFile af, String className,
@@ -520,6 +622,10 @@ public class NexusIndexManager implements IndexManager, IMavenProjectChangedList
     context.purge();
   }
 
+  /*
+   * Callers must hold repository update lock. The repository is scanned into a separate index, repository write lock
+   * is only acquired to replace the indexing context contents, so the scan does not block searches.
+   */
   private void reindexLocalRepository(IRepository repository, boolean force, final IProgressMonitor monitor)
       throws CoreException {
     if(!force) {
@@ -529,9 +635,25 @@ public class NexusIndexManager implements IndexManager, IMavenProjectChangedList
       fireIndexUpdating(repository);
       //IndexInfo indexInfo = getIndexInfo(indexName);
       IndexingContext context = getIndexingContext(repository);
-      purgeCurrentIndex(context);
-      if(context.getRepository().isDirectory()) {
-        getIndexer().scan(context, new ArtifactScanningMonitor(context.getRepository(), monitor), false);
+      File scanDir = new File(baseIndexDir, repository.getUid() + "-scan"); //$NON-NLS-1$
+      FileUtils.deleteDirectory(scanDir);
+      IndexingContext scanContext = new DefaultIndexingContext(repository.getUid() + "-scan", repository.getUid(), //$NON-NLS-1$
+          context.getRepository(), scanDir, null, null, getIndexers(getIndexDetails(repository)), true);
+      try {
+        if(context.getRepository().isDirectory()) {
+          getIndexer().scan(scanContext, new ArtifactScanningMonitor(context.getRepository(), monitor), false);
+        }
+        ReentrantReadWriteLock.WriteLock lock = getIndexLock(repository).access.writeLock();
+        lock.lock();
+        try {
+          getIndexLock(repository).groups = null;
+          context.replace(scanContext.getIndexDirectory());
+        } finally {
+          lock.unlock();
+        }
+      } finally {
+        scanContext.close(true);
+        FileUtils.deleteDirectory(scanDir);
       }
       log.info("Updated local repository index");
     } catch(Exception ex) {
@@ -543,13 +665,23 @@ public class NexusIndexManager implements IndexManager, IMavenProjectChangedList
     }
   }
 
+  /*
+   * Callers must hold repository update lock. Repository write lock is acquired to purge the index and then for each
+   * added project, so searches are not blocked for the whole reindex.
+   */
   private void reindexWorkspace(boolean force, IProgressMonitor monitor) throws CoreException {
     IRepository workspaceRepository = repositoryRegistry.getWorkspaceRepository();
     if(!force)
       return;
     try {
-      IndexingContext context = getIndexingContext(workspaceRepository);
-      purgeCurrentIndex(context);
+      ReentrantReadWriteLock.WriteLock lock = getIndexLock(workspaceRepository).access.writeLock();
+      lock.lock();
+      try {
+        getIndexLock(workspaceRepository).groups = null;
+        purgeCurrentIndex(getIndexingContext(workspaceRepository));
+      } finally {
+        lock.unlock();
+      }
       for(IMavenProjectFacade facade : projectManager.getProjects()) {
         addDocument(workspaceRepository, facade.getPomFile(), //
             facade.getArtifactKey());
@@ -564,7 +696,10 @@ public class NexusIndexManager implements IndexManager, IMavenProjectChangedList
   }
 
   protected void addDocument(IRepository repository, File file, ArtifactKey key) {
-    synchronized(getIndexLock(repository)) {
+    ReentrantReadWriteLock.WriteLock lock = getIndexLock(repository).access.writeLock();
+    lock.lock();
+    try {
+      getIndexLock(repository).groups = null;
       IndexingContext context = getIndexingContext(repository);
       if(context == null) {
         // TODO log
@@ -583,6 +718,8 @@ public class NexusIndexManager implements IndexManager, IMavenProjectChangedList
         String msg = "Unable to add " + getDocumentKey(key);
         log.error(msg, ex);
       }
+    } finally {
+      lock.unlock();
     }
   }
 
@@ -599,7 +736,10 @@ public class NexusIndexManager implements IndexManager, IMavenProjectChangedList
   }
 
   protected void removeDocument(IRepository repository, File file, ArtifactKey key, IMavenProjectFacade facade) {
-    synchronized(getIndexLock(repository)) {
+    ReentrantReadWriteLock.WriteLock lock = getIndexLock(repository).access.writeLock();
+    lock.lock();
+    try {
+      getIndexLock(repository).groups = null;
       try {
         IndexingContext context = getIndexingContext(repository);
         if(context == null) {
@@ -622,6 +762,8 @@ public class NexusIndexManager implements IndexManager, IMavenProjectChangedList
         String msg = "Unable to remove " + getDocumentKey(key);
         log.error(msg, ex);
       }
+    } finally {
+      lock.unlock();
     }
 
     fireIndexChanged(repository);
@@ -664,11 +806,13 @@ public class NexusIndexManager implements IndexManager, IMavenProjectChangedList
 
   /** for unit tests */
   public IndexedArtifactGroup[] getRootIndexedArtifactGroups(IRepository repository) throws CoreException {
-    synchronized(getIndexLock(repository)) {
+    ReentrantReadWriteLock.ReadLock lock = getIndexLock(repository).access.readLock();
+    lock.lock();
+    try {
       IndexingContext context = getIndexingContext(repository);
       if(context != null) {
         try {
-          Set<String> rootGroups = context.getRootGroups();
+          List<String> rootGroups = getGroupIndex(repository, context).getRootGroups(null, Integer.MAX_VALUE);
           IndexedArtifactGroup[] groups = new IndexedArtifactGroup[rootGroups.size()];
           int i = 0;
           for(String group : rootGroups) {
@@ -681,7 +825,49 @@ public class NexusIndexManager implements IndexManager, IMavenProjectChangedList
         }
       }
       return new IndexedArtifactGroup[0];
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Returns up to <code>limit</code> groupIds of the repository index that start with the prefix, in lexicographical
+   * order. All groupIds are matched if prefix is null or empty.
+   */
+  public List<String> getGroups(IRepository repository, String prefix, int limit) throws CoreException {
+    ReentrantReadWriteLock.ReadLock lock = getIndexLock(repository).access.readLock();
+    lock.lock();
+    try {
+      IndexingContext context = getIndexingContext(repository);
+      if(context != null) {
+        try {
+          return new ArrayList<String>(getGroupIndex(repository, context).getGroups(prefix, limit));
+        } catch(IOException ex) {
+          throw new CoreException(new Status(IStatus.ERROR, IMavenConstants.PLUGIN_ID, -1,
+              Messages.NexusIndexManager_error_search, ex));
+        }
+      }
+      return Collections.emptyList();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Returns sorted groupIds of the indexing context. Must be called with the repository read or write lock held.
+   * Concurrent readers may build the group index more than once, which is harmless as the context does not change
+   * while the read lock is held.
+   */
+  private GroupIndex getGroupIndex(IRepository repository, IndexingContext context) throws IOException {
+    IndexLock indexLock = getIndexLock(repository);
+    GroupIndex groups = indexLock.groups;
+    if(groups == null) {
+      long start = System.currentTimeMillis();
+      groups = new GroupIndex(context.getAllGroups(), context.getRootGroups());
+      indexLock.groups = groups;
+      log.debug("Built group index of {} in {} ms", repository, System.currentTimeMillis() - start); //$NON-NLS-1$
     }
+    return groups;
   }
 
   /** public for unit tests only! */
@@ -735,10 +921,14 @@ public class NexusIndexManager implements IndexManager, IMavenProjectChangedList
 
   public void mavenProjectChanged(MavenProjectChangedEvent[] events, IProgressMonitor monitor) {
     /*
-     * This method is called while holding workspace lock. Avoid long-running operations if possible. 
+     * This listener is registered as asynchronous and is called from a background job.
      */
 
-    synchronized(getIndexLock(repositoryRegistry.getWorkspaceRepository())) {
+    ReentrantReadWriteLock.WriteLock lock = getIndexLock(repositoryRegistry.getWorkspaceRepository()).access
+        .writeLock();
+    lock.lock();
+    try {
+      getIndexLock(repositoryRegistry.getWorkspaceRepository()).groups = null;
       IndexingContext context = getIndexingContext(repositoryRegistry.getWorkspaceRepository());
 
       if(context != null) {
@@ -757,6 +947,8 @@ public class NexusIndexManager implements IndexManager, IMavenProjectChangedList
           }
         }
       }
+    } finally {
+      lock.unlock();
     }
   }
 
@@ -765,16 +957,16 @@ public class NexusIndexManager implements IndexManager, IMavenProjectChangedList
   }
 
   public NexusIndex getLocalIndex() {
-    IRepository localRepository = repositoryRegistry.getLocalRepository();
-    synchronized(getIndexLock(localRepository)) {
-      if(localIndex == null) {
-        localIndex = newLocalIndex(localRepository);
-      }
+    NexusIndex localIndex = this.localIndex;
+    if(localIndex == null) {
+      // concurrent callers may create different, but equivalent instances
+      localIndex = newLocalIndex(repositoryRegistry.getLocalRepository());
+      this.localIndex = localIndex;
     }
     return localIndex;
   }
 
-  public IIndex getIndex(IProject project) {
+  public CompositeIndex getIndex(IProject project) {
     IMavenProjectFacade projectFacade = project != null ? projectManager.getProject(project) : null;
 
     ArrayList<IIndex> indexes = new ArrayList<IIndex>();
@@ -799,7 +991,7 @@ public class NexusIndexManager implements IndexManager, IMavenProjectChangedList
     return new CompositeIndex(indexes);
   }
 
-  public IIndex getAllIndexes() {
+  public CompositeIndex getAllIndexes() {
     ArrayList<IIndex> indexes = new ArrayList<IIndex>();
     indexes.add(getWorkspaceIndex());
     indexes.add(getLocalIndex());
@@ -900,10 +1092,15 @@ public class NexusIndexManager implements IndexManager, IMavenProjectChangedList
       details = defaultDetails;
     }
 
-    synchronized(getIndexLock(repository)) {
-      IndexingContext indexingContext = getIndexingContext(repository);
-
+    IndexLock indexLock = getIndexLock(repository);
+    indexLock.update.lock();
+    try {
+      ReentrantReadWriteLock.WriteLock lock = indexLock.access.writeLock();
+      lock.lock();
       try {
+        indexLock.groups = null;
+        IndexingContext indexingContext = getIndexingContext(repository);
+
         if(NexusIndex.DETAILS_DISABLED.equals(details)) {
           if(indexingContext != null) {
             getIndexer().removeIndexingContext(indexingContext, false /*removeFiles*/);
@@ -917,24 +1114,30 @@ public class NexusIndexManager implements IndexManager, IMavenProjectChangedList
           createIndexingContext(repository, details);
 
           fireIndexAdded(repository);
+        }
 
-          if(monitor != null) {
-            updateIndex(repository, false, monitor);
-          } else {
-            scheduleIndexUpdate(repository, false);
-          }
+        if(repository.isScope(IRepositoryRegistry.SCOPE_LOCAL)) {
+          // note that we are still holding repository write lock at this point
+          this.localIndex = newLocalIndex(repositoryRegistry.getLocalRepository());
         }
       } catch(IOException ex) {
         String msg = "Error changing index details " + repository.toString();
         log.error(msg, ex);
         throw new CoreException(new Status(IStatus.ERROR, IMavenConstants.PLUGIN_ID, -1,
             Messages.NexusIndexManager_error_add_repo, ex));
+      } finally {
+        lock.unlock();
       }
 
-      if(repository.isScope(IRepositoryRegistry.SCOPE_LOCAL)) {
-        // note that we are still synchronized on repository lock at this point
-        this.localIndex = newLocalIndex(repositoryRegistry.getLocalRepository());
+      if(!NexusIndex.DETAILS_DISABLED.equals(details)) {
+        if(monitor != null) {
+          updateIndex(repository, false, monitor);
+        } else {
+          scheduleIndexUpdate(repository, false);
+        }
       }
+    } finally {
+      indexLock.update.unlock();
     }
   }
 
@@ -968,17 +1171,20 @@ public class NexusIndexManager implements IndexManager, IMavenProjectChangedList
   }
 
   public void repositoryRemoved(IRepository repository, IProgressMonitor monitor) {
-    synchronized(getIndexLock(repository)) {
-      try {
-        IndexingContext context = getIndexingContext(repository);
-        if(context == null) {
-          return;
-        }
-        getIndexer().removeIndexingContext(context, false);
-      } catch(IOException ie) {
-        String msg = "Unable to delete files for index";
-        log.error(msg, ie);
+    ReentrantReadWriteLock.WriteLock lock = getIndexLock(repository).access.writeLock();
+    lock.lock();
+    try {
+      getIndexLock(repository).groups = null;
+      IndexingContext context = getIndexingContext(repository);
+      if(context == null) {
+        return;
       }
+      getIndexer().removeIndexingContext(context, false);
+    } catch(IOException ie) {
+      String msg = "Unable to delete files for index";
+      log.error(msg, ie);
+    } finally {
+      lock.unlock();
     }
 
     fireIndexRemoved(repository);
@@ -1056,7 +1262,10 @@ public class NexusIndexManager implements IndexManager, IMavenProjectChangedList
 
   //Public for testing purpose.
   public void updateIndex(IRepository repository, boolean force, IProgressMonitor monitor) throws CoreException {
-    synchronized(getIndexLock(repository)) {
+    IndexLock indexLock = getIndexLock(repository);
+    indexLock.update.lock();
+    try {
+      ReentrantReadWriteLock.WriteLock lock = indexLock.access.writeLock();
       if(repository.isScope(IRepositoryRegistry.SCOPE_WORKSPACE)) {
         reindexWorkspace(force, monitor);
       } else {
@@ -1077,15 +1286,23 @@ public class NexusIndexManager implements IndexManager, IMavenProjectChangedList
           }
         }
       }
-      IndexingContext context = getIndexingContext(repository);
-      if(context != null) {
-        context.setSearchable(true);
+      lock.lock();
+      try {
+        IndexingContext context = getIndexingContext(repository);
+        if(context != null) {
+          context.setSearchable(true);
+        }
+      } finally {
+        lock.unlock();
       }
+    } finally {
+      indexLock.update.unlock();
     }
   }
 
   /*
-   * Callers must hold repository access synchronisation lock 
+   * Callers must hold repository update lock. Repository write lock is only acquired to change the indexing context,
+   * index download and processing do not block searches.
    */
   private void updateRemoteIndex(IRepository repository, boolean force, IProgressMonitor monitor) {
     if(repository == null) {
@@ -1104,6 +1321,7 @@ public class NexusIndexManager implements IndexManager, IMavenProjectChangedList
       IndexingContext context = getIndexingContext(repository);
 
       if(context != null) {
+        ReentrantReadWriteLock.WriteLock lock = getIndexLock(repository).access.writeLock();
         IndexUpdateRequest request = newIndexUpdateRequest(repository, context, monitor);
         request.setForceFullUpdate(force);
 
@@ -1126,20 +1344,32 @@ public class NexusIndexManager implements IndexManager, IMavenProjectChangedList
             request = newIndexUpdateRequest(repository, cacheCtx, monitor);
             request.setOffline(true);
             indexUpdater.fetchAndUpdateIndex(request);
+            getIndexer().removeIndexingContext(cacheCtx, false); // keep the cache!
 
             // 2. copy cached/shared (this is not very elegant, oh well)
-            getIndexer().removeIndexingContext(context, true); // nuke workspace index files
-            getIndexer().removeIndexingContext(cacheCtx, false); // keep the cache!
-            FileUtils.cleanDirectory(context.getIndexDirectoryFile());
-            FileUtils.copyDirectory(luceneCache, context.getIndexDirectoryFile()); // copy cached lucene index
-            context = createIndexingContext(repository, details); // re-create indexing context
+            lock.lock();
+            try {
+              getIndexLock(repository).groups = null;
+              getIndexer().removeIndexingContext(context, true); // nuke workspace index files
+              FileUtils.cleanDirectory(context.getIndexDirectoryFile());
+              FileUtils.copyDirectory(luceneCache, context.getIndexDirectoryFile()); // copy cached lucene index
+              context = createIndexingContext(repository, details); // re-create indexing context
+            } finally {
+              lock.unlock();
+            }
 
             updated = true;
           } else {
             // incremental change
             request = newIndexUpdateRequest(repository, context, monitor);
             request.setOffline(true); // local cache is already uptodate, no need to
-            result = indexUpdater.fetchAndUpdateIndex(request);
+            lock.lock();
+            try {
+              getIndexLock(repository).groups = null;
+              result = indexUpdater.fetchAndUpdateIndex(request);
+            } finally {
+              lock.unlock();
+            }
             updated = result.getTimestamp() != null;
           }
 
@@ -1224,67 +1454,30 @@ public class NexusIndexManager implements IndexManager, IMavenProjectChangedList
     return Messages.NexusIndexManager_78;
   }
 
-  private Object getIndexLock(IRepository repository) {
+  private IndexLock getIndexLock(IRepository repository) {
     if(repository == null) {
-      return new Object();
+      return new IndexLock();
     }
     // NOTE: We ultimately want to prevent concurrent access to the IndexingContext so we sync on the repo UID and not on the repo instance.
     synchronized(indexLocks) {
-      Object lock = indexLocks.get(repository.getUid());
+      IndexLock lock = indexLocks.get(repository.getUid());
       if(lock == null) {
-        lock = new Object();
+        lock = new IndexLock();
         indexLocks.put(repository.getUid(), lock);
       }
       return lock;
     }
   }
 
-  /// REMOVE THIS BELOW ONCE Maven Indexer upgraded to 3.2.0-SNAPSHOT
-  /// In that moment this code becomes duplicated and already in place, this method added
-
   protected ArtifactInfo identify(File artifact, Collection<IndexingContext> contexts) throws IOException {
-
-    FileInputStream is = null;
-
-    try {
-      MessageDigest sha1 = MessageDigest.getInstance("SHA-1");
-
-      is = new FileInputStream(artifact);
-
-      byte[] buff = new byte[4096];
-
-      int n;
-
-      while((n = is.read(buff)) > -1) {
-        sha1.update(buff, 0, n);
-      }
-
-      byte[] digest = sha1.digest();
-
-      Query q = getIndexer().constructQuery(MAVEN.SHA1, encode(digest), SearchType.EXACT);
-
-      return getIndexer().identify(q, contexts);
-
-    } catch(NoSuchAlgorithmException ex) {
-      throw new IOException("Unable to calculate digest");
-    } finally {
-      IOUtil.close(is);
-    }
-
+    Query q = getIndexer().constructQuery(MAVEN.SHA1, checksumCache.getSha1(artifact), SearchType.EXACT);
+    return getIndexer().identify(q, contexts);
   }
 
-  private static final char[] DIGITS = "0123456789abcdef".toCharArray();
-
-  private static String encode(byte[] digest) {
-    char[] buff = new char[digest.length * 2];
-
-    int n = 0;
-
-    for(byte b : digest) {
-      buff[n++ ] = DIGITS[(0xF0 & b) >> 4];
-      buff[n++ ] = DIGITS[0x0F & b];
-    }
-
-    return new String(buff);
+  /**
+   * Returns cache of SHA-1 checksums of local files, which should be used whenever local repository files are hashed.
+   */
+  public FileChecksumCache getChecksumCache() {
+    return checksumCache;
   }
 }
@@ -0,0 +1,98 @@
+/*******************************************************************************
+ * Copyright (c) 2008-2010 Sonatype, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *      Sonatype, Inc. - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.m2e.core.internal.index;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+
+/**
+ * k-way merge of search results of several indexes, see {@link CompositeIndex}. Results are merged in key order and
+ * merging stops once the requested number of results is collected.
+ *
+ * @author igor
+ */
+class SearchResultMerger {
+
+  /**
+   * Merges search results. If more than one index returned the same key, result of the last of these indexes is used.
+   * 
+   * @param results search results of each index in index order, null if the index did not return results
+   */
+  static <V> Map<String, V> merge(List<Map<String, V>> results, int limit) {
+    PriorityQueue<MergeHead<V>> heads = new PriorityQueue<MergeHead<V>>();
+    for(int i = 0; i < results.size(); i++ ) {
+      Map<String, V> iresult = results.get(i);
+      if(iresult == null || iresult.isEmpty()) {
+        continue;
+      }
+      if(!(iresult instanceof SortedMap<?, ?>) || ((SortedMap<String, V>) iresult).comparator() != null) {
+        iresult = new TreeMap<String, V>(iresult);
+      }
+      MergeHead<V> head = new MergeHead<V>(i, iresult.entrySet().iterator());
+      head.advance();
+      heads.add(head);
+    }
+
+    Map<String, V> result = new TreeMap<String, V>();
+    while(!heads.isEmpty() && result.size() < limit) {
+      MergeHead<V> head = heads.poll();
+      String key = head.entry.getKey();
+      V value = head.entry.getValue();
+      int index = head.index;
+      requeue(heads, head);
+      while(!heads.isEmpty() && heads.peek().entry.getKey().equals(key)) {
+        MergeHead<V> other = heads.poll();
+        if(other.index > index) {
+          value = other.entry.getValue();
+          index = other.index;
+        }
+        requeue(heads, other);
+      }
+      result.put(key, value);
+    }
+    return result;
+  }
+
+  private static <V> void requeue(PriorityQueue<MergeHead<V>> heads, MergeHead<V> head) {
+    if(head.advance()) {
+      heads.add(head);
+    }
+  }
+
+  private static class MergeHead<V> implements Comparable<MergeHead<V>> {
+    final int index;
+
+    final Iterator<Map.Entry<String, V>> iterator;
+
+    Map.Entry<String, V> entry;
+
+    MergeHead(int index, Iterator<Map.Entry<String, V>> iterator) {
+      this.index = index;
+      this.iterator = iterator;
+    }
+
+    boolean advance() {
+      entry = iterator.hasNext() ? iterator.next() : null;
+      return entry != null;
+    }
+
+    public int compareTo(MergeHead<V> other) {
+      int result = entry.getKey().compareTo(other.entry.getKey());
+      return result != 0 ? result : index - other.index;
+    }
+  }
+}
@@ -0,0 +1,160 @@
+/*******************************************************************************
+ * Copyright (c) 2008-2010 Sonatype, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *      Sonatype, Inc. - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.m2e.core.internal.lifecyclemapping;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.osgi.framework.Bundle;
+import org.osgi.framework.BundleContext;
+
+import org.eclipse.core.runtime.IExtension;
+import org.eclipse.core.runtime.IExtensionPoint;
+import org.eclipse.core.runtime.IExtensionRegistry;
+import org.eclipse.core.runtime.IRegistryEventListener;
+import org.eclipse.core.runtime.Platform;
+import org.eclipse.core.runtime.spi.RegistryContributor;
+
+import org.eclipse.m2e.core.MavenPlugin;
+import org.eclipse.m2e.core.internal.lifecyclemapping.model.LifecycleMappingMetadataSource;
+
+
+/**
+ * Lifecycle mapping metadata sources contributed by installed bundles. Metadata of each contributing bundle is parsed
+ * once and kept until extensions of the bundle are added or removed, which also happens when the bundle is updated.
+ * <p>
+ * Cached sources are shared by all projects. Their collections are replaced with unmodifiable views, so attempts to
+ * modify the shared model fail instead of silently affecting lifecycle mapping of other projects.
+ *
+ * @author igor
+ */
+class BundleMetadataSourceCache implements IRegistryEventListener {
+
+  /**
+   * Parsed metadata keyed by contributing bundle symbolic name, null value if the bundle does not provide metadata.
+   * Guarded by this.
+   */
+  private final Map<String, LifecycleMappingMetadataSource> bundleSources = new HashMap<String, LifecycleMappingMetadataSource>();
+
+  /**
+   * Sources of all contributing bundles, in extension order, or null if extensions need to be read. Guarded by this.
+   */
+  private List<LifecycleMappingMetadataSource> sources;
+
+  /**
+   * Index of current sources, null if not built yet. Guarded by this.
+   */
+  private MappingMetadataSource mappingSource;
+
+  private boolean registryListenerAdded;
+
+  private final String extensionPointId;
+
+  private final EffectiveMappingCache effectiveMappingCache;
+
+  BundleMetadataSourceCache(String extensionPointId, EffectiveMappingCache effectiveMappingCache) {
+    this.extensionPointId = extensionPointId;
+    this.effectiveMappingCache = effectiveMappingCache;
+  }
+
+  public synchronized List<LifecycleMappingMetadataSource> getSources() {
+    if(sources != null) {
+      return sources;
+    }
+
+    IExtensionRegistry registry = Platform.getExtensionRegistry();
+    if(!registryListenerAdded) {
+      registry.addListener(this, extensionPointId);
+      registryListenerAdded = true;
+    }
+
+    List<LifecycleMappingMetadataSource> result = new ArrayList<LifecycleMappingMetadataSource>();
+    Map<String, Bundle> bundles = null;
+    IExtensionPoint extensionPoint = registry.getExtensionPoint(extensionPointId);
+    if(extensionPoint != null) {
+      for(IExtension extension : extensionPoint.getExtensions()) {
+        String bundleName = getBundleName(extension);
+        if(!bundleSources.containsKey(bundleName)) {
+          if(bundles == null) {
+            bundles = getBundles();
+          }
+          LifecycleMappingMetadataSource source = LifecycleMappingFactory.getMetadataSource(bundles.get(bundleName));
+          if(source != null) {
+            LifecycleMappingFactory.makeUnmodifiable(source);
+          }
+          bundleSources.put(bundleName, source);
+        }
+        LifecycleMappingMetadataSource source = bundleSources.get(bundleName);
+        if(source != null) {
+          result.add(source);
+        }
+      }
+    }
+
+    sources = Collections.unmodifiableList(result);
+    return sources;
+  }
+
+  /**
+   * Returns mapping metadata source backed by the given bundle sources. The index of the current bundle sources, as
+   * returned by {@link #getSources()}, is built once and shared.
+   */
+  public synchronized MappingMetadataSource getMappingMetadataSource(List<LifecycleMappingMetadataSource> sources) {
+    if(sources != this.sources) {
+      return new SimpleMappingMetadataSource(sources);
+    }
+    if(mappingSource == null) {
+      mappingSource = new SimpleMappingMetadataSource(sources);
+    }
+    return mappingSource;
+  }
+
+  private static Map<String, Bundle> getBundles() {
+    BundleContext ctx = MavenPlugin.getDefault().getBundleContext();
+    Map<String, Bundle> bundles = new HashMap<String, Bundle>();
+    for(Bundle bundle : ctx.getBundles()) {
+      bundles.put(bundle.getSymbolicName(), bundle);
+    }
+    return bundles;
+  }
+
+  private static String getBundleName(IExtension extension) {
+    RegistryContributor contributor = (RegistryContributor) extension.getContributor();
+    return contributor.getActualName();
+  }
+
+  public synchronized void added(IExtension[] extensions) {
+    reset(extensions);
+  }
+
+  public synchronized void removed(IExtension[] extensions) {
+    reset(extensions);
+  }
+
+  private void reset(IExtension[] extensions) {
+    for(IExtension extension : extensions) {
+      bundleSources.remove(getBundleName(extension));
+    }
+    sources = null;
+    mappingSource = null;
+    effectiveMappingCache.clear();
+  }
+
+  public void added(IExtensionPoint[] extensionPoints) {
+  }
+
+  public void removed(IExtensionPoint[] extensionPoints) {
+  }
+}
@@ -0,0 +1,158 @@
+/*******************************************************************************
+ * Copyright (c) 2008-2010 Sonatype, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *      Sonatype, Inc. - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.m2e.core.internal.lifecyclemapping;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.maven.plugin.MojoExecution;
+
+import org.eclipse.m2e.core.internal.lifecyclemapping.model.LifecycleMappingMetadata;
+import org.eclipse.m2e.core.internal.lifecyclemapping.model.LifecycleMappingMetadataSource;
+import org.eclipse.m2e.core.lifecyclemapping.model.IPluginExecutionMetadata;
+import org.eclipse.m2e.core.project.configurator.MojoExecutionKey;
+
+
+/**
+ * Memoizes effective lifecycle mapping metadata. Modules of a reactor usually inherit identical plugin executions and
+ * lifecycle mapping metadata from a common parent, in which case effective mapping is calculated once and reused for
+ * all of them.
+ * <p>
+ * Effective mapping is keyed by project packaging, mojo execution keys and identity of the metadata sources used to
+ * calculate the mapping. Metadata sources are shared and immutable, changed metadata results in new source instances,
+ * so entries of changed sources are never used again and are dropped when the cache is cleared or evicted. Mappings
+ * that depend on mojo parameter values or have problems are not cached.
+ *
+ * @author igor
+ */
+class EffectiveMappingCache {
+
+  private static final int MAX_SIZE = 512;
+
+  private final Map<Key, Value> mappings = new LinkedHashMap<Key, Value>(16, 0.75f, true) {
+    private static final long serialVersionUID = 6472581016398834735L;
+
+    protected boolean removeEldestEntry(Map.Entry<Key, Value> eldest) {
+      return size() > MAX_SIZE;
+    }
+  };
+
+  static class Key {
+    private final String packaging;
+
+    private final LifecycleMappingMetadataSource[] sources;
+
+    private final List<MojoExecutionKey> executions;
+
+    private final int hash;
+
+    Key(String packaging, List<LifecycleMappingMetadataSource> sources, List<MojoExecution> mojoExecutions) {
+      this.packaging = packaging;
+      this.sources = sources.toArray(new LifecycleMappingMetadataSource[sources.size()]);
+      if(mojoExecutions != null) {
+        this.executions = new ArrayList<MojoExecutionKey>(mojoExecutions.size());
+        for(MojoExecution execution : mojoExecutions) {
+          executions.add(new MojoExecutionKey(execution));
+        }
+      } else {
+        this.executions = null;
+      }
+
+      int hash = packaging != null ? packaging.hashCode() : 0;
+      for(LifecycleMappingMetadataSource source : this.sources) {
+        hash = 17 * hash + System.identityHashCode(source);
+      }
+      hash = 17 * hash + (executions != null ? executions.hashCode() : 0);
+      this.hash = hash;
+    }
+
+    public int hashCode() {
+      return hash;
+    }
+
+    public boolean equals(Object obj) {
+      if(this == obj) {
+        return true;
+      }
+      if(!(obj instanceof Key)) {
+        return false;
+      }
+      Key other = (Key) obj;
+      if(hash != other.hash || sources.length != other.sources.length) {
+        return false;
+      }
+      // sources are compared by identity
+      for(int i = 0; i < sources.length; i++ ) {
+        if(sources[i] != other.sources[i]) {
+          return false;
+        }
+      }
+      return eq(packaging, other.packaging) && eq(executions, other.executions);
+    }
+
+    private static <T> boolean eq(T a, T b) {
+      return a != null ? a.equals(b) : b == null;
+    }
+  }
+
+  private static class Value {
+    final LifecycleMappingMetadata lifecycleMappingMetadata;
+
+    final Map<MojoExecutionKey, List<IPluginExecutionMetadata>> mojoExecutionMapping;
+
+    Value(LifecycleMappingResult result) {
+      this.lifecycleMappingMetadata = result.getLifecycleMappingMetadata();
+      this.mojoExecutionMapping = copy(result.getMojoExecutionMapping());
+    }
+  }
+
+  /**
+   * Populates the result with cached mapping of the key. Returns false if there is no cached mapping.
+   */
+  public boolean get(Key key, LifecycleMappingResult result) {
+    Value value;
+    synchronized(this) {
+      value = mappings.get(key);
+    }
+    if(value == null) {
+      return false;
+    }
+    result.setLifecycleMappingMetadata(value.lifecycleMappingMetadata);
+    result.setMojoExecutionMapping(copy(value.mojoExecutionMapping));
+    return true;
+  }
+
+  public void put(Key key, LifecycleMappingResult result) {
+    Value value = new Value(result);
+    synchronized(this) {
+      mappings.put(key, value);
+    }
+  }
+
+  public synchronized void clear() {
+    mappings.clear();
+  }
+
+  private static Map<MojoExecutionKey, List<IPluginExecutionMetadata>> copy(
+      Map<MojoExecutionKey, List<IPluginExecutionMetadata>> mapping) {
+    if(mapping == null) {
+      return null;
+    }
+    Map<MojoExecutionKey, List<IPluginExecutionMetadata>> result = new LinkedHashMap<MojoExecutionKey, List<IPluginExecutionMetadata>>();
+    for(Map.Entry<MojoExecutionKey, List<IPluginExecutionMetadata>> entry : mapping.entrySet()) {
+      result.put(entry.getKey(), new ArrayList<IPluginExecutionMetadata>(entry.getValue()));
+    }
+    return result;
+  }
+}
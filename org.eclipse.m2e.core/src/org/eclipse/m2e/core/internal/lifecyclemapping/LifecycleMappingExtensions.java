@@ -0,0 +1,207 @@
+/*******************************************************************************
+ * Copyright (c) 2008-2010 Sonatype, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *      Sonatype, Inc. - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.m2e.core.internal.lifecyclemapping;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IConfigurationElement;
+import org.eclipse.core.runtime.IExtension;
+import org.eclipse.core.runtime.IExtensionPoint;
+import org.eclipse.core.runtime.IExtensionRegistry;
+import org.eclipse.core.runtime.IRegistryEventListener;
+import org.eclipse.core.runtime.Platform;
+
+import org.eclipse.m2e.core.MavenPlugin;
+import org.eclipse.m2e.core.project.configurator.AbstractLifecycleMapping;
+import org.eclipse.m2e.core.project.configurator.AbstractProjectConfigurator;
+
+
+/**
+ * Snapshot of lifecycle mapping and project configurator extensions. Extensions are read from the extension registry
+ * once and kept until an extension is added to or removed from either extension point.
+ * <p>
+ * Lifecycle mappings and project configurators do not keep project specific state, each of them is instantiated the
+ * first time it is requested and the same instance is returned to all callers until extensions change. Extensions
+ * are instantiated without holding any lock and failed instantiation is attempted again on next request.
+ *
+ * @author igor
+ */
+class LifecycleMappingExtensions implements IRegistryEventListener {
+  private static final Logger log = LoggerFactory.getLogger(LifecycleMappingExtensions.class);
+
+  private static final String ELEMENT_LIFECYCLE_MAPPING = "lifecycleMapping"; //$NON-NLS-1$
+
+  private static final String ELEMENT_CONFIGURATOR = "configurator"; //$NON-NLS-1$
+
+  private static final String ATTR_CLASS = "class"; //$NON-NLS-1$
+
+  private static final String ATTR_ID = "id"; //$NON-NLS-1$
+
+  private static final String ATTR_NAME = "name"; //$NON-NLS-1$
+
+  private final String lifecycleMappingsExtensionPointId;
+
+  private final String configuratorsExtensionPointId;
+
+  /**
+   * Current snapshot, null if extensions need to be read. Guarded by this.
+   */
+  private Snapshot snapshot;
+
+  private boolean registryListenerAdded;
+
+  private static class Snapshot {
+    final Map<String, IConfigurationElement> lifecycleMappings;
+
+    final Map<String, IConfigurationElement> configurators;
+
+    /**
+     * Instantiated lifecycle mappings and configurators, keyed by extension id.
+     */
+    final ConcurrentMap<String, AbstractLifecycleMapping> lifecycleMappingInstances = new ConcurrentHashMap<String, AbstractLifecycleMapping>();
+
+    final ConcurrentMap<String, AbstractProjectConfigurator> configuratorInstances = new ConcurrentHashMap<String, AbstractProjectConfigurator>();
+
+    Snapshot(Map<String, IConfigurationElement> lifecycleMappings, Map<String, IConfigurationElement> configurators) {
+      this.lifecycleMappings = Collections.unmodifiableMap(lifecycleMappings);
+      this.configurators = Collections.unmodifiableMap(configurators);
+    }
+  }
+
+  LifecycleMappingExtensions(String lifecycleMappingsExtensionPointId, String configuratorsExtensionPointId) {
+    this.lifecycleMappingsExtensionPointId = lifecycleMappingsExtensionPointId;
+    this.configuratorsExtensionPointId = configuratorsExtensionPointId;
+  }
+
+  private synchronized Snapshot getSnapshot() {
+    if(snapshot == null) {
+      IExtensionRegistry registry = Platform.getExtensionRegistry();
+      if(!registryListenerAdded) {
+        registry.addListener(this, lifecycleMappingsExtensionPointId);
+        registry.addListener(this, configuratorsExtensionPointId);
+        registryListenerAdded = true;
+      }
+      snapshot = new Snapshot(readExtensions(registry, lifecycleMappingsExtensionPointId, ELEMENT_LIFECYCLE_MAPPING),
+          readExtensions(registry, configuratorsExtensionPointId, ELEMENT_CONFIGURATOR));
+    }
+    return snapshot;
+  }
+
+  /**
+   * Returns configuration elements of the extension point keyed by element id.
+   */
+  static Map<String, IConfigurationElement> readExtensions(IExtensionRegistry registry, String extensionPointId,
+      String elementName) {
+    Map<String, IConfigurationElement> elements = new HashMap<String, IConfigurationElement>(); // not ordered
+    IExtensionPoint extensionPoint = registry.getExtensionPoint(extensionPointId);
+    if(extensionPoint != null) {
+      for(IExtension extension : extensionPoint.getExtensions()) {
+        for(IConfigurationElement element : extension.getConfigurationElements()) {
+          if(element.getName().equals(elementName)) {
+            elements.put(element.getAttribute(ATTR_ID), element);
+          }
+        }
+      }
+    }
+    return elements;
+  }
+
+  public Map<String, IConfigurationElement> getLifecycleMappingExtensions() {
+    return getSnapshot().lifecycleMappings;
+  }
+
+  public Map<String, IConfigurationElement> getProjectConfiguratorExtensions() {
+    return getSnapshot().configurators;
+  }
+
+  public IConfigurationElement getProjectConfiguratorExtension(String configuratorId) {
+    return getSnapshot().configurators.get(configuratorId);
+  }
+
+  /**
+   * Returns lifecycle mapping with the given id or null if there is no such lifecycle mapping or it could not be
+   * instantiated.
+   */
+  public AbstractLifecycleMapping getLifecycleMapping(String mappingId) {
+    Snapshot snapshot = getSnapshot();
+    IConfigurationElement element = snapshot.lifecycleMappings.get(mappingId);
+    if(element == null) {
+      return null;
+    }
+    AbstractLifecycleMapping mapping = snapshot.lifecycleMappingInstances.get(mappingId);
+    if(mapping != null) {
+      return mapping;
+    }
+    try {
+      mapping = (AbstractLifecycleMapping) element.createExecutableExtension(ATTR_CLASS);
+      mapping.setId(mappingId);
+      mapping.setName(element.getAttribute(ATTR_NAME));
+    } catch(CoreException ex) {
+      log.error(ex.getMessage(), ex);
+      return null;
+    }
+    AbstractLifecycleMapping existing = snapshot.lifecycleMappingInstances.putIfAbsent(mappingId, mapping);
+    return existing != null ? existing : mapping;
+  }
+
+  /**
+   * Returns project configurator with the given id or null if there is no such configurator or it could not be
+   * instantiated.
+   */
+  public AbstractProjectConfigurator getProjectConfigurator(String configuratorId) {
+    Snapshot snapshot = getSnapshot();
+    IConfigurationElement element = snapshot.configurators.get(configuratorId);
+    if(element == null) {
+      return null;
+    }
+    AbstractProjectConfigurator configurator = snapshot.configuratorInstances.get(configuratorId);
+    if(configurator != null) {
+      return configurator;
+    }
+    try {
+      configurator = (AbstractProjectConfigurator) element
+          .createExecutableExtension(AbstractProjectConfigurator.ATTR_CLASS);
+
+      MavenPlugin plugin = MavenPlugin.getDefault();
+      configurator.setProjectManager(plugin.getMavenProjectManager());
+      configurator.setMavenConfiguration(plugin.getMavenConfiguration());
+      configurator.setMarkerManager(plugin.getMavenMarkerManager());
+    } catch(CoreException ex) {
+      log.error(ex.getMessage(), ex);
+      return null;
+    }
+    AbstractProjectConfigurator existing = snapshot.configuratorInstances.putIfAbsent(configuratorId, configurator);
+    return existing != null ? existing : configurator;
+  }
+
+  public synchronized void added(IExtension[] extensions) {
+    snapshot = null;
+  }
+
+  public synchronized void removed(IExtension[] extensions) {
+    snapshot = null;
+  }
+
+  public void added(IExtensionPoint[] extensionPoints) {
+  }
+
+  public void removed(IExtensionPoint[] extensionPoints) {
+  }
+}
@@ -19,7 +19,6 @@ import java.io.StringReader;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
@@ -28,26 +27,21 @@ import java.util.Map;
 import java.util.Set;
 
 import org.osgi.framework.Bundle;
-import org.osgi.framework.BundleContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import org.eclipse.core.resources.IMarker;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IConfigurationElement;
-import org.eclipse.core.runtime.IExtension;
-import org.eclipse.core.runtime.IExtensionPoint;
 import org.eclipse.core.runtime.IExtensionRegistry;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.Platform;
-import org.eclipse.core.runtime.spi.RegistryContributor;
 import org.eclipse.osgi.util.NLS;
 
 import org.codehaus.plexus.util.IOUtil;
 import org.codehaus.plexus.util.xml.Xpp3Dom;
 import org.codehaus.plexus.util.xml.pull.XmlPullParserException;
 
-import org.apache.maven.artifact.Artifact;
 import org.apache.maven.artifact.repository.ArtifactRepository;
 import org.apache.maven.artifact.versioning.ComparableVersion;
 import org.apache.maven.execution.DefaultMavenExecutionRequest;
@@ -69,6 +63,7 @@ import org.eclipse.m2e.core.internal.Messages;
 import org.eclipse.m2e.core.internal.embedder.MavenImpl;
 import org.eclipse.m2e.core.internal.lifecyclemapping.model.LifecycleMappingMetadata;
 import org.eclipse.m2e.core.internal.lifecyclemapping.model.LifecycleMappingMetadataSource;
+import org.eclipse.m2e.core.internal.lifecyclemapping.model.PluginExecutionFilter;
 import org.eclipse.m2e.core.internal.lifecyclemapping.model.PluginExecutionMetadata;
 import org.eclipse.m2e.core.internal.lifecyclemapping.model.io.xpp3.LifecycleMappingMetadataSourceXpp3Reader;
 import org.eclipse.m2e.core.internal.markers.MavenProblemInfo;
@@ -114,18 +109,12 @@ public class LifecycleMappingFactory {
 
   private static final String ELEMENT_LIFECYCLE_MAPPING_METADATA = "lifecycleMappingMetadata"; //$NON-NLS-1$
 
-  private static final String ELEMENT_LIFECYCLE_MAPPING = "lifecycleMapping"; //$NON-NLS-1$
-
   private static final String ELEMENT_SOURCES = "sources"; //$NON-NLS-1$
 
   private static final String ELEMENT_SOURCE = "source"; //$NON-NLS-1$
 
-  private static final String ATTR_CLASS = "class"; //$NON-NLS-1$
-
   private static final String ATTR_ID = "id"; //$NON-NLS-1$
 
-  private static final String ATTR_NAME = "name"; //$NON-NLS-1$
-
   private static final String ELEMENT_CONFIGURATOR = "configurator"; //$NON-NLS-1$
 
   private static final String ELEMENT_MESSAGE = "message"; //$NON-NLS-1$
@@ -140,7 +129,17 @@ public class LifecycleMappingFactory {
 
   private static final String ATTR_SECONDARY_TO = "secondaryTo";
 
-  private static final String LIFECYCLE_MAPPING_METADATA_CLASSIFIER = "lifecycle-mapping-metadata";
+  static final String LIFECYCLE_MAPPING_METADATA_CLASSIFIER = "lifecycle-mapping-metadata";
+
+  private static final String LIFECYCLE_MAPPING_METADATA_CACHE = "lifecycle-mapping-metadata.properties"; //$NON-NLS-1$
+
+  private static final LifecycleMappingExtensions extensions = new LifecycleMappingExtensions(
+      EXTENSION_LIFECYCLE_MAPPINGS, EXTENSION_PROJECT_CONFIGURATORS);
+
+  private static final EffectiveMappingCache effectiveMappingCache = new EffectiveMappingCache();
+
+  private static final BundleMetadataSourceCache bundleMetadataSourceCache = new BundleMetadataSourceCache(
+      EXTENSION_LIFECYCLE_MAPPING_METADATA_SOURCE, effectiveMappingCache);
 
   public static LifecycleMappingResult calculateLifecycleMapping(MavenExecutionRequest templateRequest,
       MavenProjectFacade projectFacade, IProgressMonitor monitor) {
@@ -152,8 +151,13 @@ public class LifecycleMappingFactory {
     try {
       MavenProject mavenProject = projectFacade.getMavenProject(monitor);
 
-      calculateEffectiveLifecycleMappingMetadata(result, templateRequest, mavenProject,
-          projectFacade.getMojoExecutions(), monitor);
+      List<MojoExecution> mojoExecutions = null;
+      if(!"pom".equals(mavenProject.getPackaging())) { //$NON-NLS-1$
+        // execution plans are calculated on demand and are not needed to map pom projects
+        mojoExecutions = projectFacade.getMojoExecutions(monitor);
+      }
+
+      calculateEffectiveLifecycleMappingMetadata(result, templateRequest, mavenProject, mojoExecutions, monitor);
 
       instantiateLifecycleMapping(result, mavenProject, result.getLifecycleMappingId());
 
@@ -190,24 +194,51 @@ public class LifecycleMappingFactory {
       return;
     }
 
-    List<MappingMetadataSource> metadataSources;
+    List<LifecycleMappingMetadataSource> bundleMetadataSources = getBundleMetadataSources();
+    List<LifecycleMappingMetadataSource> pomMetadataSources;
     try {
-      metadataSources = getProjectMetadataSources(templateRequest, mavenProject, getBundleMetadataSources(), true,
-          monitor);
+      pomMetadataSources = getPomMappingMetadataSources(mavenProject, templateRequest, monitor);
     } catch(LifecycleMappingConfigurationException e) {
       // could not read/parse/interpret mapping metadata configured in the pom or inherited from parent pom.
       // record the problem and return
       result.addProblem(new MavenProblemInfo(mavenProject, e));
       return;
     }
+    LifecycleMappingMetadataSource defaultMetadataSource = getDefaultLifecycleMappingMetadataSource();
+
+    List<LifecycleMappingMetadataSource> keySources = new ArrayList<LifecycleMappingMetadataSource>(pomMetadataSources);
+    keySources.addAll(bundleMetadataSources);
+    if(defaultMetadataSource != null) {
+      keySources.add(defaultMetadataSource);
+    }
+    EffectiveMappingCache.Key key = new EffectiveMappingCache.Key(packagingType, keySources, mojoExecutions);
+    if(effectiveMappingCache.get(key, result)) {
+      log.debug("Using cached effective lifecycle mapping metadata for {}.", mavenProject.toString()); //$NON-NLS-1$
+      return;
+    }
+
+    List<MappingMetadataSource> metadataSources = getProjectMetadataSources(pomMetadataSources, bundleMetadataSources,
+        defaultMetadataSource);
 
-    calculateEffectiveLifecycleMappingMetadata(result, templateRequest, metadataSources, mavenProject, mojoExecutions,
-        true);
+    boolean cacheable = doCalculateEffectiveLifecycleMappingMetadata(result, templateRequest, metadataSources,
+        mavenProject, mojoExecutions, true);
+    if(cacheable && !result.hasProblems()) {
+      effectiveMappingCache.put(key, result);
+    }
   }
 
   public static List<MappingMetadataSource> getProjectMetadataSources(MavenExecutionRequest templateRequest,
       MavenProject mavenProject, List<LifecycleMappingMetadataSource> bundleMetadataSources, boolean includeDefault,
       IProgressMonitor monitor) throws CoreException, LifecycleMappingConfigurationException {
+    List<LifecycleMappingMetadataSource> pomMetadataSources = getPomMappingMetadataSources(mavenProject,
+        templateRequest, monitor);
+    return getProjectMetadataSources(pomMetadataSources, bundleMetadataSources,
+        includeDefault ? getDefaultLifecycleMappingMetadataSource() : null);
+  }
+
+  private static List<MappingMetadataSource> getProjectMetadataSources(
+      List<LifecycleMappingMetadataSource> pomMetadataSources,
+      List<LifecycleMappingMetadataSource> bundleMetadataSources, LifecycleMappingMetadataSource defaultSource) {
     List<MappingMetadataSource> metadataSources = new ArrayList<MappingMetadataSource>();
 
     // List order
@@ -215,16 +246,13 @@ public class LifecycleMappingFactory {
     // 2. sources contributed by eclipse extensions
     // 3. default source, if present
     // TODO validate metadata and replace invalid entries with error mapping
-    for(LifecycleMappingMetadataSource source : getPomMappingMetadataSources(mavenProject, templateRequest, monitor)) {
+    for(LifecycleMappingMetadataSource source : pomMetadataSources) {
       metadataSources.add(new SimpleMappingMetadataSource(source));
     }
     // TODO filter out invalid metadata from sources contributed by eclipse extensions and the default source 
-    metadataSources.add(new SimpleMappingMetadataSource(bundleMetadataSources));
-    if(includeDefault) {
-      LifecycleMappingMetadataSource defaultSource = getDefaultLifecycleMappingMetadataSource();
-      if(defaultSource != null) {
-        metadataSources.add(new SimpleMappingMetadataSource(defaultSource));
-      }
+    metadataSources.add(bundleMetadataSourceCache.getMappingMetadataSource(bundleMetadataSources));
+    if(defaultSource != null) {
+      metadataSources.add(new SimpleMappingMetadataSource(defaultSource));
     }
 
     return metadataSources;
@@ -233,6 +261,18 @@ public class LifecycleMappingFactory {
   public static void calculateEffectiveLifecycleMappingMetadata(LifecycleMappingResult result,
       MavenExecutionRequest templateRequest, List<MappingMetadataSource> metadataSources, MavenProject mavenProject,
       List<MojoExecution> mojoExecutions, boolean applyDefaultStrategy) {
+    doCalculateEffectiveLifecycleMappingMetadata(result, templateRequest, metadataSources, mavenProject,
+        mojoExecutions, applyDefaultStrategy);
+  }
+
+  /**
+   * Returns true if calculated mapping does not depend on mojo parameter values and can be reused for other projects
+   * with the same packaging, mojo executions and metadata sources.
+   */
+  private static boolean doCalculateEffectiveLifecycleMappingMetadata(LifecycleMappingResult result,
+      MavenExecutionRequest templateRequest, List<MappingMetadataSource> metadataSources, MavenProject mavenProject,
+      List<MojoExecution> mojoExecutions, boolean applyDefaultStrategy) {
+    boolean parametersIndependent = true;
 
     IMaven maven = MavenPlugin.getDefault().getMaven();
     MavenSession session = maven.createSession(newMavenExecutionRequest(templateRequest), mavenProject);
@@ -256,7 +296,7 @@ public class LifecycleMappingFactory {
       } catch(DuplicateMappingException e) {
         log.error("Duplicate lifecycle mapping metadata for {}.", mavenProject.toString());
         result.addProblem(new MavenProblemInfo(1, NLS.bind(Messages.LifecycleDuplicate, mavenProject.getPackaging())));
-        return; // fatal error
+        return false; // fatal error
       }
     }
 
@@ -286,8 +326,9 @@ public class LifecycleMappingFactory {
         try {
           for(MappingMetadataSource source : metadataSources) {
             try {
-              List<PluginExecutionMetadata> metadatas = applyParametersFilter(session,
-                  source.getPluginExecutionMetadata(executionKey), mavenProject, execution);
+              List<PluginExecutionMetadata> metadatas = source.getPluginExecutionMetadata(executionKey);
+              parametersIndependent &= !hasParametersFilter(metadatas);
+              metadatas = applyParametersFilter(session, metadatas, mavenProject, execution);
               for(PluginExecutionMetadata executionMetadata : metadatas) {
                 if(LifecycleMappingFactory.isPrimaryMapping(executionMetadata)) {
                   if(primaryMetadata != null) {
@@ -327,6 +368,7 @@ public class LifecycleMappingFactory {
             for(MappingMetadataSource source : metadataSources) {
               try {
                 List<PluginExecutionMetadata> metadatas = source.getPluginExecutionMetadata(executionKey);
+                parametersIndependent &= !hasParametersFilter(metadatas);
                 metadatas = applyParametersFilter(session, metadatas, mavenProject, execution);
                 for(PluginExecutionMetadata metadata : metadatas) {
                   if(isValidPluginExecutionMetadata(metadata)) {
@@ -355,6 +397,17 @@ public class LifecycleMappingFactory {
     }
 
     result.setMojoExecutionMapping(executionMapping);
+
+    return parametersIndependent;
+  }
+
+  private static boolean hasParametersFilter(List<PluginExecutionMetadata> metadatas) {
+    for(PluginExecutionMetadata metadata : metadatas) {
+      if(!metadata.getFilter().getParameters().isEmpty()) {
+        return true;
+      }
+    }
+    return false;
   }
 
   private static List<PluginExecutionMetadata> applyParametersFilter(MavenSession session,
@@ -509,7 +562,6 @@ public class LifecycleMappingFactory {
 
       LifecycleMappingMetadataSource embeddedSource = getEmbeddedMetadataSource(project);
       if(embeddedSource != null) {
-        embeddedSource.setSource(project);
         sources.add(embeddedSource);
       }
 
@@ -580,18 +632,26 @@ public class LifecycleMappingFactory {
     }
   }
 
-  private static AbstractLifecycleMapping createLifecycleMapping(IConfigurationElement element) {
-    String mappingId = null;
-    try {
-      AbstractLifecycleMapping mapping = (AbstractLifecycleMapping) element.createExecutableExtension(ATTR_CLASS);
-      mappingId = element.getAttribute(ATTR_ID);
-      mapping.setId(mappingId);
-      mapping.setName(element.getAttribute(ATTR_NAME));
-      return mapping;
-    } catch(CoreException ex) {
-      log.error(ex.getMessage(), ex);
+  /**
+   * Replaces collections of the metadata source with unmodifiable views, for sources shared by several projects.
+   */
+  static void makeUnmodifiable(LifecycleMappingMetadataSource metadataSource) {
+    for(LifecycleMappingMetadata lifecycleMapping : metadataSource.getLifecycleMappings()) {
+      lifecycleMapping.setPluginExecutions(makeUnmodifiable(lifecycleMapping.getPluginExecutions()));
     }
-    return null;
+    metadataSource.setLifecycleMappings(Collections.unmodifiableList(new ArrayList<LifecycleMappingMetadata>(
+        metadataSource.getLifecycleMappings())));
+    metadataSource.setPluginExecutions(makeUnmodifiable(metadataSource.getPluginExecutions()));
+  }
+
+  private static List<PluginExecutionMetadata> makeUnmodifiable(List<PluginExecutionMetadata> executions) {
+    for(PluginExecutionMetadata execution : executions) {
+      PluginExecutionFilter filter = execution.getFilter();
+      if(filter != null) {
+        filter.setGoals(Collections.unmodifiableSet(new LinkedHashSet<String>(filter.getGoals())));
+      }
+    }
+    return Collections.unmodifiableList(new ArrayList<PluginExecutionMetadata>(executions));
   }
 
   public static MojoExecutionBuildParticipant createMojoExecutionBuildParicipant(IMavenProjectFacade projectFacade,
@@ -604,86 +664,38 @@ public class LifecycleMappingFactory {
     return new MojoExecutionBuildParticipant(mojoExecution, runOnIncremental);
   }
 
+  /**
+   * Returns lifecycle mapping extensions keyed by lifecycle mapping id. The returned map cannot be modified.
+   */
   public static Map<String, IConfigurationElement> getLifecycleMappingExtensions() {
-    Map<String, IConfigurationElement> mappings = new HashMap<String, IConfigurationElement>(); // not ordered
-
-    IExtensionRegistry registry = Platform.getExtensionRegistry();
-    IExtensionPoint configuratorsExtensionPoint = registry.getExtensionPoint(EXTENSION_LIFECYCLE_MAPPINGS);
-    if(configuratorsExtensionPoint != null) {
-      IExtension[] configuratorExtensions = configuratorsExtensionPoint.getExtensions();
-      for(IExtension extension : configuratorExtensions) {
-        IConfigurationElement[] elements = extension.getConfigurationElements();
-        for(IConfigurationElement element : elements) {
-          if(element.getName().equals(ELEMENT_LIFECYCLE_MAPPING)) {
-            mappings.put(element.getAttribute(ATTR_ID), element);
-          }
-        }
-      }
-    }
-
-    return mappings;
+    return extensions.getLifecycleMappingExtensions();
   }
 
   private static AbstractLifecycleMapping getLifecycleMapping(String mappingId) {
-    IConfigurationElement element = getLifecycleMappingExtensions().get(mappingId);
-    if(element != null && element.getName().equals(ELEMENT_LIFECYCLE_MAPPING)) {
-      if(mappingId.equals(element.getAttribute(ATTR_ID))) {
-        return createLifecycleMapping(element);
-      }
-    }
-    return null;
+    return extensions.getLifecycleMapping(mappingId);
   }
 
+  /**
+   * Returns project configurator with the given id or null if there is no such configurator. Configurators do not
+   * keep project specific state, the same instance is returned to all callers until installed extensions change.
+   */
   public static AbstractProjectConfigurator createProjectConfigurator(String configuratorId) {
-    IConfigurationElement element = getProjectConfiguratorExtension(configuratorId);
-    if(element != null) {
-      try {
-        AbstractProjectConfigurator configurator = (AbstractProjectConfigurator) element
-            .createExecutableExtension(AbstractProjectConfigurator.ATTR_CLASS);
-
-        MavenPlugin plugin = MavenPlugin.getDefault();
-        configurator.setProjectManager(plugin.getMavenProjectManager());
-        configurator.setMavenConfiguration(plugin.getMavenConfiguration());
-        configurator.setMarkerManager(plugin.getMavenMarkerManager());
-
-        return configurator;
-      } catch(CoreException ex) {
-        log.error(ex.getMessage(), ex);
-      }
-    }
-    return null;
+    return extensions.getProjectConfigurator(configuratorId);
   }
 
+  /**
+   * Returns project configurator extensions keyed by configurator id. The returned map cannot be modified.
+   */
   public static Map<String, IConfigurationElement> getProjectConfiguratorExtensions() {
-    IExtensionRegistry registry = Platform.getExtensionRegistry();
-    return getProjectConfiguratorExtensions(registry);
+    return extensions.getProjectConfiguratorExtensions();
   }
 
   public static Map<String, IConfigurationElement> getProjectConfiguratorExtensions(IExtensionRegistry registry) {
-    Map<String, IConfigurationElement> extensions = new HashMap<String, IConfigurationElement>();
-    IExtensionPoint configuratorsExtensionPoint = registry.getExtensionPoint(EXTENSION_PROJECT_CONFIGURATORS);
-    if(configuratorsExtensionPoint != null) {
-      IExtension[] configuratorExtensions = configuratorsExtensionPoint.getExtensions();
-      for(IExtension extension : configuratorExtensions) {
-        IConfigurationElement[] elements = extension.getConfigurationElements();
-        for(IConfigurationElement element : elements) {
-          if(element.getName().equals(ELEMENT_CONFIGURATOR)) {
-            extensions.put(element.getAttribute(AbstractProjectConfigurator.ATTR_ID), element);
-          }
-        }
-      }
-    }
-    return extensions;
+    return LifecycleMappingExtensions.readExtensions(registry, EXTENSION_PROJECT_CONFIGURATORS, ELEMENT_CONFIGURATOR);
   }
 
   private static IConfigurationElement getProjectConfiguratorExtension(String configuratorId) {
-    IConfigurationElement element = getProjectConfiguratorExtensions().get(configuratorId);
-    if(element != null && element.getName().equals(ELEMENT_CONFIGURATOR)) {
-      if(configuratorId.equals(element.getAttribute(AbstractProjectConfigurator.ATTR_ID))) {
-        return element;
-      }
-    }
-    return null;
+    return extensions.getProjectConfiguratorExtension(configuratorId);
   }
 
   private static void checkCompatibleVersion(Plugin metadataPlugin) {
@@ -695,6 +707,28 @@ public class LifecycleMappingFactory {
     }
   }
 
+  private static final int MAX_EMBEDDED_METADATA_SOURCES = 64;
+
+  /**
+   * Source of lifecycle mapping metadata embedded in project poms. Embedded metadata sources are shared by all projects
+   * with the same metadata xml, so they do not reference the project they were read from.
+   */
+  public static final Object EMBEDDED_METADATA_SOURCE = "pom"; //$NON-NLS-1$
+
+  /**
+   * Parsed metadata sources embedded in poms, keyed by metadata xml. Modules usually inherit embedded metadata from a
+   * common parent, sharing parsed sources allows reuse of memoized effective mapping. Cached sources do not reference
+   * any MavenProject, see {@link #EMBEDDED_METADATA_SOURCE}.
+   */
+  private static final Map<String, LifecycleMappingMetadataSource> embeddedMetadataSources = new LinkedHashMap<String, LifecycleMappingMetadataSource>(
+      16, 0.75f, true) {
+    private static final long serialVersionUID = -2350727911683386421L;
+
+    protected boolean removeEldestEntry(Map.Entry<String, LifecycleMappingMetadataSource> eldest) {
+      return size() > MAX_EMBEDDED_METADATA_SOURCES;
+    }
+  };
+
   private static LifecycleMappingMetadataSource getEmbeddedMetadataSource(MavenProject mavenProject)
       throws CoreException {
     // TODO this does not merge configuration from profiles 
@@ -708,9 +742,21 @@ public class LifecycleMappingFactory {
         Xpp3Dom lifecycleMappingDom = configurationDom.getChild(ELEMENT_LIFECYCLE_MAPPING_METADATA);
         if(lifecycleMappingDom != null) {
           try {
-            LifecycleMappingMetadataSource metadataSource = new LifecycleMappingMetadataSourceXpp3Reader()
-                .read(new StringReader(lifecycleMappingDom.toString()));
-            postCreateLifecycleMappingMetadataSource(metadataSource);
+            String lifecycleMappingXml = lifecycleMappingDom.toString();
+            LifecycleMappingMetadataSource metadataSource;
+            synchronized(embeddedMetadataSources) {
+              metadataSource = embeddedMetadataSources.get(lifecycleMappingXml);
+            }
+            if(metadataSource == null) {
+              metadataSource = new LifecycleMappingMetadataSourceXpp3Reader().read(new StringReader(
+                  lifecycleMappingXml));
+              postCreateLifecycleMappingMetadataSource(metadataSource);
+              metadataSource.setSource(EMBEDDED_METADATA_SOURCE);
+              makeUnmodifiable(metadataSource);
+              synchronized(embeddedMetadataSources) {
+                embeddedMetadataSources.put(lifecycleMappingXml, metadataSource);
+              }
+            }
             String packagingType = mavenProject.getPackaging();
             if(!"pom".equals(packagingType)) { //$NON-NLS-1$
               for(LifecycleMappingMetadata lifecycleMappingMetadata : metadataSource.getLifecycleMappings()) {
@@ -849,6 +895,7 @@ public class LifecycleMappingFactory {
       LifecycleMappingMetadataSource defaultLifecycleMappingMetadataSource) {
     LifecycleMappingFactory.defaultLifecycleMappingMetadataSource = defaultLifecycleMappingMetadataSource;
     useDefaultLifecycleMappingMetadataSource = true;
+    effectiveMappingCache.clear();
   }
 
   private static boolean useDefaultLifecycleMappingMetadataSource = true;
@@ -859,39 +906,26 @@ public class LifecycleMappingFactory {
     if(!use) {
       defaultLifecycleMappingMetadataSource = null;
     }
+    effectiveMappingCache.clear();
   }
 
-  // TODO: cache LifecycleMappingMetadataSource instances
-  private static LifecycleMappingMetadataSource getLifecycleMappingMetadataSource(String groupId, String artifactId,
-      String version, List<ArtifactRepository> repositories, IProgressMonitor monitor) {
-    IMaven maven = MavenPlugin.getDefault().getMaven();
-    try {
-      // TODO this does not resolve workspace artifacts
-      Artifact artifact = maven.resolve(groupId, artifactId, version, "xml", LIFECYCLE_MAPPING_METADATA_CLASSIFIER,
-          repositories, monitor);
+  private static MetadataSourceArtifactCache metadataSourceArtifactCache;
 
-      File file = artifact.getFile();
-      if(file == null || !file.exists() || !file.canRead()) {
-        throw new LifecycleMappingConfigurationException("Cannot find file for artifact " + artifact);
-      }
-      try {
-        LifecycleMappingMetadataSource metadataSource = createLifecycleMappingMetadataSource(groupId, artifactId,
-            version, file);
-        metadataSource.setSource(artifact);
-        return metadataSource;
-      } catch(IOException e) {
-        throw new LifecycleMappingConfigurationException("Cannot read lifecycle mapping metadata for " + artifact, e);
-      } catch(XmlPullParserException e) {
-        throw new LifecycleMappingConfigurationException("Cannot parse lifecycle mapping metadata for " + artifact, e);
-      } catch(RuntimeException e) {
-        throw new LifecycleMappingConfigurationException("Cannot load lifecycle mapping metadata for " + artifact, e);
-      }
-    } catch(CoreException ex) {
-      throw new LifecycleMappingConfigurationException(ex);
+  private static synchronized MetadataSourceArtifactCache getMetadataSourceArtifactCache() {
+    if(metadataSourceArtifactCache == null) {
+      File stateLocationDir = MavenPlugin.getDefault().getStateLocation().toFile();
+      metadataSourceArtifactCache = new MetadataSourceArtifactCache(new File(stateLocationDir,
+          LIFECYCLE_MAPPING_METADATA_CACHE), effectiveMappingCache);
     }
+    return metadataSourceArtifactCache;
+  }
+
+  private static LifecycleMappingMetadataSource getLifecycleMappingMetadataSource(String groupId, String artifactId,
+      String version, List<ArtifactRepository> repositories, IProgressMonitor monitor) {
+    return getMetadataSourceArtifactCache().getSource(groupId, artifactId, version, repositories, monitor);
   }
 
-  private static LifecycleMappingMetadataSource createLifecycleMappingMetadataSource(String groupId, String artifactId,
+  static LifecycleMappingMetadataSource createLifecycleMappingMetadataSource(String groupId, String artifactId,
       String version, File configuration) throws IOException, XmlPullParserException {
     InputStream in = new FileInputStream(configuration);
     try {
@@ -905,44 +939,24 @@ public class LifecycleMappingFactory {
     }
   }
 
+
+
   /**
-   * Returns lifecycle mapping metadata sources provided by all installed bundles
+   * Returns lifecycle mapping metadata sources provided by all installed bundles. Returned sources are shared and
+   * cannot be modified.
    */
   public static List<LifecycleMappingMetadataSource> getBundleMetadataSources() {
-    // XXX cache!
-    ArrayList<LifecycleMappingMetadataSource> sources = new ArrayList<LifecycleMappingMetadataSource>();
-
-    BundleContext ctx = MavenPlugin.getDefault().getBundleContext();
-    Map<String, Bundle> bundles = new HashMap<String, Bundle>();
-    for(Bundle bundle : ctx.getBundles()) {
-      bundles.put(bundle.getSymbolicName(), bundle);
-    }
-
-    IExtensionRegistry registry = Platform.getExtensionRegistry();
-    IExtensionPoint configuratorsExtensionPoint = registry
-        .getExtensionPoint(EXTENSION_LIFECYCLE_MAPPING_METADATA_SOURCE);
-    if(configuratorsExtensionPoint != null) {
-      IExtension[] configuratorExtensions = configuratorsExtensionPoint.getExtensions();
-      for(IExtension extension : configuratorExtensions) {
-        RegistryContributor contributor = (RegistryContributor) extension.getContributor();
-        Bundle bundle = bundles.get(contributor.getActualName());
-        LifecycleMappingMetadataSource source = getMetadataSource(bundle);
-        if(source != null) {
-          sources.add(source);
-        }
-      }
-    }
-
-    return sources;
+    return bundleMetadataSourceCache.getSources();
   }
 
-  private static LifecycleMappingMetadataSource getMetadataSource(Bundle bundle) {
+  static LifecycleMappingMetadataSource getMetadataSource(Bundle bundle) {
     if(bundle == null) {
       return null;
     }
     URL url = bundle.getEntry(LIFECYCLE_MAPPING_METADATA_SOURCE_PATH);
     if(url != null) {
       try {
+        log.debug("Reading lifecycle mapping metadata of bundle {}", bundle.getSymbolicName()); //$NON-NLS-1$
         InputStream in = url.openStream();
         try {
           return createLifecycleMappingMetadataSource(in);
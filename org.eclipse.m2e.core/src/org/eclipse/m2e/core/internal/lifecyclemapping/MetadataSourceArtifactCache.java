@@ -0,0 +1,246 @@
+/*******************************************************************************
+ * Copyright (c) 2008-2010 Sonatype, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *      Sonatype, Inc. - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.m2e.core.internal.lifecyclemapping;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+
+import org.codehaus.plexus.util.IOUtil;
+import org.codehaus.plexus.util.xml.pull.XmlPullParserException;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.ArtifactUtils;
+import org.apache.maven.artifact.DefaultArtifact;
+import org.apache.maven.artifact.handler.DefaultArtifactHandler;
+import org.apache.maven.artifact.repository.ArtifactRepository;
+
+import org.eclipse.m2e.core.MavenPlugin;
+import org.eclipse.m2e.core.embedder.IMaven;
+import org.eclipse.m2e.core.internal.lifecyclemapping.model.LifecycleMappingMetadataSource;
+
+
+/**
+ * Lifecycle mapping metadata sources referenced from project poms. Many projects usually reference the same metadata
+ * artifact, typically via a common parent, so each artifact is resolved and parsed once and the parsed source is
+ * shared by all referencing projects.
+ * <p>
+ * Cache entries are keyed by artifact groupId:artifactId:version and remember path, size and last modification time of
+ * the resolved file. Parsed sources are kept in memory, resolved file locations are also persisted in the state
+ * location, so release artifacts do not need to be resolved again after restart. Snapshot artifacts are always
+ * resolved, but are only parsed again if the resolved file changed.
+ *
+ * @author igor
+ */
+class MetadataSourceArtifactCache {
+  private static final Logger log = LoggerFactory.getLogger(MetadataSourceArtifactCache.class);
+
+  private static final String TYPE = "xml"; //$NON-NLS-1$
+
+  private final File cacheFile;
+
+  private final EffectiveMappingCache effectiveMappingCache;
+
+  /**
+   * Guarded by this
+   */
+  private final Map<String, Entry> entries = new HashMap<String, Entry>();
+
+  private boolean loaded;
+
+  private static class Entry {
+    final File file;
+
+    final long length;
+
+    final long lastModified;
+
+    volatile LifecycleMappingMetadataSource source;
+
+    Entry(File file) {
+      this(file, file.length(), file.lastModified());
+    }
+
+    Entry(File file, long length, long lastModified) {
+      this.file = file;
+      this.length = length;
+      this.lastModified = lastModified;
+    }
+
+    boolean isUpToDate() {
+      return file.isFile() && file.canRead() && file.length() == length && file.lastModified() == lastModified;
+    }
+
+    boolean isSameFile(File other) {
+      return file.equals(other) && other.length() == length && other.lastModified() == lastModified;
+    }
+  }
+
+  public MetadataSourceArtifactCache(File cacheFile, EffectiveMappingCache effectiveMappingCache) {
+    this.cacheFile = cacheFile;
+    this.effectiveMappingCache = effectiveMappingCache;
+  }
+
+  public LifecycleMappingMetadataSource getSource(String groupId, String artifactId, String version,
+      List<ArtifactRepository> repositories, IProgressMonitor monitor) {
+    String key = groupId + ":" + artifactId + ":" + version; //$NON-NLS-1$ //$NON-NLS-2$
+    Entry entry = getEntry(key);
+
+    if(entry == null || ArtifactUtils.isSnapshot(version) || !entry.isUpToDate()) {
+      File file = resolve(groupId, artifactId, version, repositories, monitor);
+      if(entry == null || !entry.isSameFile(file)) {
+        entry = new Entry(file);
+      }
+    }
+
+    LifecycleMappingMetadataSource source = entry.source;
+    if(source == null) {
+      source = parse(groupId, artifactId, version, entry.file);
+      entry.source = source;
+    }
+    putEntry(key, entry);
+    return source;
+  }
+
+  private File resolve(String groupId, String artifactId, String version, List<ArtifactRepository> repositories,
+      IProgressMonitor monitor) {
+    IMaven maven = MavenPlugin.getDefault().getMaven();
+    try {
+      // TODO this does not resolve workspace artifacts
+      Artifact artifact = maven.resolve(groupId, artifactId, version, TYPE,
+          LifecycleMappingFactory.LIFECYCLE_MAPPING_METADATA_CLASSIFIER, repositories, monitor);
+
+      File file = artifact.getFile();
+      if(file == null || !file.exists() || !file.canRead()) {
+        throw new LifecycleMappingConfigurationException("Cannot find file for artifact " + artifact);
+      }
+      return file;
+    } catch(CoreException ex) {
+      throw new LifecycleMappingConfigurationException(ex);
+    }
+  }
+
+  private static LifecycleMappingMetadataSource parse(String groupId, String artifactId, String version, File file) {
+    Artifact artifact = new DefaultArtifact(groupId, artifactId, version, null, TYPE,
+        LifecycleMappingFactory.LIFECYCLE_MAPPING_METADATA_CLASSIFIER, new DefaultArtifactHandler(TYPE));
+    artifact.setFile(file);
+    artifact.setResolved(true);
+    try {
+      LifecycleMappingMetadataSource metadataSource = LifecycleMappingFactory.createLifecycleMappingMetadataSource(
+          groupId, artifactId, version, file);
+      metadataSource.setSource(artifact);
+      LifecycleMappingFactory.makeUnmodifiable(metadataSource);
+      return metadataSource;
+    } catch(IOException e) {
+      throw new LifecycleMappingConfigurationException("Cannot read lifecycle mapping metadata for " + artifact, e);
+    } catch(XmlPullParserException e) {
+      throw new LifecycleMappingConfigurationException("Cannot parse lifecycle mapping metadata for " + artifact, e);
+    } catch(RuntimeException e) {
+      throw new LifecycleMappingConfigurationException("Cannot load lifecycle mapping metadata for " + artifact, e);
+    }
+  }
+
+  private synchronized Entry getEntry(String key) {
+    if(!loaded) {
+      load();
+      loaded = true;
+    }
+    return entries.get(key);
+  }
+
+  private synchronized void putEntry(String key, Entry entry) {
+    Entry existing = entries.get(key);
+    if(existing == entry) {
+      return;
+    }
+    entries.put(key, entry);
+    if(existing != null && existing.source != null) {
+      // mappings calculated from the old source will not be used again
+      effectiveMappingCache.clear();
+    }
+    if(existing == null || !existing.isSameFile(entry.file)) {
+      save();
+    }
+  }
+
+  private void load() {
+    if(!cacheFile.isFile()) {
+      return;
+    }
+    Properties properties = new Properties();
+    try {
+      InputStream is = new BufferedInputStream(new FileInputStream(cacheFile));
+      try {
+        properties.load(is);
+      } finally {
+        IOUtil.close(is);
+      }
+    } catch(IOException ex) {
+      log.warn("Could not read lifecycle mapping metadata cache " + cacheFile, ex);
+      return;
+    }
+    for(Map.Entry<Object, Object> property : properties.entrySet()) {
+      // <length>:<lastModified>:<path>
+      String[] parts = ((String) property.getValue()).split(":", 3); //$NON-NLS-1$
+      if(parts.length != 3) {
+        continue;
+      }
+      try {
+        entries.put((String) property.getKey(),
+            new Entry(new File(parts[2]), Long.parseLong(parts[0]), Long.parseLong(parts[1])));
+      } catch(NumberFormatException ex) {
+        // ignore corrupted entry
+      }
+    }
+  }
+
+  private void save() {
+    Properties properties = new Properties();
+    for(Map.Entry<String, Entry> entry : entries.entrySet()) {
+      Entry value = entry.getValue();
+      properties.put(entry.getKey(), value.length + ":" + value.lastModified + ":" + value.file.getAbsolutePath()); //$NON-NLS-1$ //$NON-NLS-2$
+    }
+    File tmpFile = new File(cacheFile.getParentFile(), cacheFile.getName() + ".tmp"); //$NON-NLS-1$
+    try {
+      OutputStream os = new BufferedOutputStream(new FileOutputStream(tmpFile));
+      try {
+        properties.store(os, null);
+      } finally {
+        IOUtil.close(os);
+      }
+      if(!tmpFile.renameTo(cacheFile)) {
+        // can't rename over existing file on some platforms
+        cacheFile.delete();
+        if(!tmpFile.renameTo(cacheFile)) {
+          throw new IOException("Could not rename " + tmpFile + " to " + cacheFile);
+        }
+      }
+    } catch(IOException ex) {
+      log.warn("Could not write lifecycle mapping metadata cache " + cacheFile, ex);
+    }
+  }
+}
@@ -12,64 +12,113 @@
 package org.eclipse.m2e.core.internal.lifecyclemapping;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import org.eclipse.m2e.core.internal.lifecyclemapping.model.LifecycleMappingMetadata;
 import org.eclipse.m2e.core.internal.lifecyclemapping.model.LifecycleMappingMetadataSource;
+import org.eclipse.m2e.core.internal.lifecyclemapping.model.PluginExecutionFilter;
 import org.eclipse.m2e.core.internal.lifecyclemapping.model.PluginExecutionMetadata;
 import org.eclipse.m2e.core.project.configurator.MojoExecutionKey;
 
 
 /**
  * SimpleMappingMetadataSource
+ * <p>
+ * Lifecycle mappings are indexed by packaging type and plugin execution metadata by plugin groupId:artifactId when the
+ * source is created, so lookups only check filters of the plugin of the mojo execution.
  * 
  * @author igor
  */
 class SimpleMappingMetadataSource implements MappingMetadataSource {
 
-  private final List<LifecycleMappingMetadata> lifecycleMappings = new ArrayList<LifecycleMappingMetadata>();
+  private final Map<String, LifecycleMappingMetadata> lifecycleMappings = new HashMap<String, LifecycleMappingMetadata>();
 
-  private final List<PluginExecutionMetadata> pluginExecutions = new ArrayList<PluginExecutionMetadata>();
+  /**
+   * Packaging types with more than one lifecycle mapping
+   */
+  private final Set<String> duplicatePackagingTypes = new HashSet<String>();
+
+  /**
+   * Plugin execution metadata keyed by groupId:artifactId of the filter, in the order the metadata is defined
+   */
+  private final Map<String, List<PluginExecutionMetadata>> pluginExecutions = new HashMap<String, List<PluginExecutionMetadata>>();
 
   public SimpleMappingMetadataSource(LifecycleMappingMetadataSource source) {
-    this.lifecycleMappings.addAll(source.getLifecycleMappings());
-    this.pluginExecutions.addAll(source.getPluginExecutions());
+    addLifecycleMappings(source.getLifecycleMappings());
+    addPluginExecutions(source.getPluginExecutions());
   }
 
   public SimpleMappingMetadataSource(List<LifecycleMappingMetadataSource> sources) {
     for(LifecycleMappingMetadataSource source : sources) {
-      this.lifecycleMappings.addAll(source.getLifecycleMappings());
-      this.pluginExecutions.addAll(source.getPluginExecutions());
+      addLifecycleMappings(source.getLifecycleMappings());
+      addPluginExecutions(source.getPluginExecutions());
     }
   }
 
   public SimpleMappingMetadataSource(LifecycleMappingMetadata lifecycleMapping) {
-    //this.lifecycleMappings.add(lifecycleMapping);
-    this.pluginExecutions.addAll(lifecycleMapping.getPluginExecutions());
+    //addLifecycleMappings(Collections.singletonList(lifecycleMapping));
+    addPluginExecutions(lifecycleMapping.getPluginExecutions());
+  }
+
+  private void addLifecycleMappings(List<LifecycleMappingMetadata> mappings) {
+    for(LifecycleMappingMetadata mapping : mappings) {
+      String packagingType = mapping.getPackagingType();
+      if(packagingType == null) {
+        continue;
+      }
+      if(lifecycleMappings.containsKey(packagingType)) {
+        duplicatePackagingTypes.add(packagingType);
+      } else {
+        lifecycleMappings.put(packagingType, mapping);
+      }
+    }
+  }
+
+  private void addPluginExecutions(List<PluginExecutionMetadata> executions) {
+    for(PluginExecutionMetadata execution : executions) {
+      PluginExecutionFilter filter = execution.getFilter();
+      if(filter == null) {
+        // can't match anything
+        continue;
+      }
+      String key = getKey(filter.getGroupId(), filter.getArtifactId());
+      List<PluginExecutionMetadata> candidates = pluginExecutions.get(key);
+      if(candidates == null) {
+        candidates = new ArrayList<PluginExecutionMetadata>();
+        pluginExecutions.put(key, candidates);
+      }
+      candidates.add(execution);
+    }
+  }
+
+  private static String getKey(String groupId, String artifactId) {
+    return groupId + ":" + artifactId; //$NON-NLS-1$
   }
 
   public LifecycleMappingMetadata getLifecycleMappingMetadata(String packagingType) throws DuplicateMappingException {
     if(packagingType == null) {
       return null;
     }
-    LifecycleMappingMetadata mapping = null;
-    for(LifecycleMappingMetadata _mapping : lifecycleMappings) {
-      if(packagingType.equals(_mapping.getPackagingType())) {
-        if(mapping != null) {
-          throw new DuplicateMappingException();
-        }
-        mapping = _mapping;
-      }
+    if(duplicatePackagingTypes.contains(packagingType)) {
+      throw new DuplicateMappingException();
     }
-    return mapping;
+    return lifecycleMappings.get(packagingType);
   }
 
   public List<PluginExecutionMetadata> getPluginExecutionMetadata(MojoExecutionKey execution) {
     ArrayList<PluginExecutionMetadata> mappings = new ArrayList<PluginExecutionMetadata>();
     if(execution != null) {
-      for(PluginExecutionMetadata mapping : pluginExecutions) {
-        if(mapping.getFilter().match(execution)) {
-          mappings.add(mapping);
+      List<PluginExecutionMetadata> candidates = pluginExecutions.get(getKey(execution.getGroupId(),
+          execution.getArtifactId()));
+      if(candidates != null) {
+        for(PluginExecutionMetadata mapping : candidates) {
+          if(mapping.getFilter().match(execution)) {
+            mappings.add(mapping);
+          }
         }
       }
     }
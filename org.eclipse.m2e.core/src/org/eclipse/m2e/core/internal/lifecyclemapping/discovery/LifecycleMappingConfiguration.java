@@ -417,7 +417,7 @@ public class LifecycleMappingConfiguration {
       return false;
     }
     Object source = metadataSource.getSource();
-    if (source instanceof MavenProject) {
+    if (source == LifecycleMappingFactory.EMBEDDED_METADATA_SOURCE) {
       return true;
     }
     if (source instanceof Artifact) {
@@ -11,9 +11,11 @@
 
 package org.eclipse.m2e.core.internal.project;
 
-import java.util.Iterator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Map.Entry;
+import java.util.Map;
+import java.util.Set;
 
 import org.eclipse.core.resources.IFile;
 
@@ -28,11 +30,20 @@ import org.eclipse.m2e.core.embedder.ArtifactKey;
 
 /**
  * EclipseMavenMetadataCache
+ * <p>
+ * Keeps an index of cache keys by groupId:artifactId:baseVersion of the artifacts mentioned by the cached records, so
+ * removing entries of a project only touches the entries that refer to the project and does not scan the whole cache.
  * 
  * @author igor
  */
 public class EclipseMavenMetadataCache extends DefaultMavenMetadataCache implements MavenMetadataCache, IManagedCache {
 
+  /**
+   * Cache keys of the records that mention the artifact, keyed by GAbV. May contain keys of records that have since
+   * been removed from the cache as stale, these are dropped together with the artifact entries. Guarded by this.
+   */
+  private final Map<ArtifactKey, Set<CacheKey>> keysByArtifact = new HashMap<ArtifactKey, Set<CacheKey>>();
+
   public void put(Artifact artifact, boolean resolveManagedVersions, ArtifactRepository localRepository,
       List<ArtifactRepository> remoteRepositories, ResolutionGroup result) {
 
@@ -46,46 +57,54 @@ public class EclipseMavenMetadataCache extends DefaultMavenMetadataCache impleme
     super.put(artifact, resolveManagedVersions, localRepository, remoteRepositories, result);
   }
 
-  public void removeProject(IFile pom, ArtifactKey key) {
-    removeProject(key);
-  }
+  protected synchronized void put(CacheKey cacheKey, ResolutionGroup result) {
+    super.put(cacheKey, result);
 
-  private void removeProject(ArtifactKey key) {
-    if(key == null) {
+    CacheRecord record = cache.get(cacheKey);
+    if(record == null) {
       return;
     }
-
-    Iterator<Entry<CacheKey, CacheRecord>> iter = cache.entrySet().iterator();
-
-    while(iter.hasNext()) {
-      Entry<CacheKey, CacheRecord> entry = iter.next();
-      CacheRecord record = entry.getValue();
-
-      if(equals(record.getArtifact(), key) || contains(record.getArtifacts(), key)) {
-        iter.remove();
-      }
+    if(record.getArtifact() != null) {
+      index(record.getArtifact(), cacheKey);
     }
-  }
-
-  private boolean contains(List<Artifact> artifacts, ArtifactKey key) {
-    for(Artifact artifact : artifacts) {
-      if(equals(artifact, key)) {
-        return true;
-      }
+    for(Artifact artifact : record.getArtifacts()) {
+      index(artifact, cacheKey);
     }
-    return false;
   }
 
-  private boolean equals(Artifact artifact, ArtifactKey key) {
+  private void index(Artifact artifact, CacheKey cacheKey) {
     /*
      * maybe too conservative, but purge anything that matches GAbV (bV==baseVersion)
      */
-    return eq(key.getGroupId(), artifact.getGroupId()) //
-        && eq(key.getArtifactId(), artifact.getArtifactId()) //
-        && eq(key.getVersion(), artifact.getBaseVersion());
+    ArtifactKey key = new ArtifactKey(artifact.getGroupId(), artifact.getArtifactId(), artifact.getBaseVersion(), null);
+    Set<CacheKey> keys = keysByArtifact.get(key);
+    if(keys == null) {
+      keys = new HashSet<CacheKey>();
+      keysByArtifact.put(key, keys);
+    }
+    keys.add(cacheKey);
+  }
+
+  public void removeProject(IFile pom, ArtifactKey key) {
+    removeProject(key);
+  }
+
+  private synchronized void removeProject(ArtifactKey key) {
+    if(key == null) {
+      return;
+    }
+
+    Set<CacheKey> keys = keysByArtifact.remove(new ArtifactKey(key.getGroupId(), key.getArtifactId(), key
+        .getVersion(), null));
+    if(keys != null) {
+      for(CacheKey cacheKey : keys) {
+        cache.remove(cacheKey);
+      }
+    }
   }
 
-  private static <T> boolean eq(T a, T b) {
-    return a != null ? a.equals(b) : b == null;
+  public synchronized void flush() {
+    super.flush();
+    keysByArtifact.clear();
   }
 }
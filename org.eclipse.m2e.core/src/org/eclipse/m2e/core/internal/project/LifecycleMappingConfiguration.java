@@ -12,11 +12,7 @@
 package org.eclipse.m2e.core.internal.project;
 
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -29,7 +25,6 @@ import org.eclipse.core.resources.IProject;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
 
-import org.codehaus.plexus.util.IOUtil;
 import org.codehaus.plexus.util.xml.Xpp3Dom;
 
 import org.apache.maven.plugin.MojoExecution;
@@ -83,14 +78,7 @@ public class LifecycleMappingConfiguration implements ILifecycleMappingConfigura
         return;
       }
 
-      File configFile = getConfigurationFile(facade.getProject());
-      ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(configFile));
-      try {
-        oos.writeObject(configuration);
-        oos.flush();
-      } finally {
-        IOUtil.close(oos);
-      }
+      getStore().put(facade.getProject().getName(), configuration);
     } catch(CoreException ex) {
       log.warn("Could not persist build lifecycle mapping configuration for {}.", facade.toString(), ex);
     } catch(IOException ex) {
@@ -127,24 +115,19 @@ public class LifecycleMappingConfiguration implements ILifecycleMappingConfigura
     return configuration;
   }
 
-  private static File getConfigurationFile(IProject project) {
-    File stateLocationDir = MavenPlugin.getDefault().getStateLocation().toFile();
-    File configFile = new File(stateLocationDir, project.getName() + ".lifecyclemapping");
-    return configFile;
+  private static LifecycleMappingConfigurationStore store;
+
+  private static synchronized LifecycleMappingConfigurationStore getStore() {
+    if(store == null) {
+      File stateLocationDir = MavenPlugin.getDefault().getStateLocation().toFile();
+      store = new LifecycleMappingConfigurationStore(stateLocationDir);
+    }
+    return store;
   }
 
   public static LifecycleMappingConfiguration restore(IMavenProjectFacade facade, IProgressMonitor monitor) {
-    File configFile = getConfigurationFile(facade.getProject());
     try {
-      ObjectInputStream ois = new ObjectInputStream(new FileInputStream(configFile));
-      try {
-        Object obj = ois.readObject();
-        if(obj instanceof LifecycleMappingConfiguration) {
-          return (LifecycleMappingConfiguration) obj;
-        }
-      } finally {
-        IOUtil.close(ois);
-      }
+      return getStore().get(facade.getProject().getName());
     } catch(ClassNotFoundException ex) {
       log.warn("Could not read persistent build lifecycle mapping configuration for {}.", facade.toString(), ex);
     } catch(IOException ex) {
@@ -155,7 +138,38 @@ public class LifecycleMappingConfiguration implements ILifecycleMappingConfigura
   }
 
   public static void remove(IProject project) {
-    getConfigurationFile(project).delete();
+    getStore().remove(project.getName());
+  }
+
+  public static void rename(IProject oldProject, IProject newProject) {
+    getStore().rename(oldProject.getName(), newProject.getName());
+  }
+
+  /**
+   * Writes changes of persisted configuration to disk.
+   */
+  public static void flush() {
+    LifecycleMappingConfigurationStore store;
+    synchronized(LifecycleMappingConfiguration.class) {
+      store = LifecycleMappingConfiguration.store;
+    }
+    if(store != null) {
+      store.flush();
+    }
+  }
+
+  /**
+   * Cancels background writes of persisted configuration and writes pending changes to disk.
+   */
+  public static void dispose() {
+    LifecycleMappingConfigurationStore store;
+    synchronized(LifecycleMappingConfiguration.class) {
+      store = LifecycleMappingConfiguration.store;
+      LifecycleMappingConfiguration.store = null;
+    }
+    if(store != null) {
+      store.dispose();
+    }
   }
 
 }
@@ -0,0 +1,309 @@
+/*******************************************************************************
+ * Copyright (c) 2008-2010 Sonatype, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *      Sonatype, Inc. - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.m2e.core.internal.project;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.eclipse.core.resources.IWorkspaceRoot;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+
+import org.codehaus.plexus.util.IOUtil;
+
+import org.eclipse.m2e.core.internal.Messages;
+
+
+/**
+ * Persistent lifecycle mapping configuration of all workspace projects, keyed by project name and kept in a single
+ * file in the plugin state location.
+ * <p>
+ * Configurations are kept in memory in serialized form. Changes are written to disk by {@link #flush()}, which
+ * replaces the whole file, so configuration updates of many projects, for example during import, result in a single
+ * write. Changes not flushed explicitly are written by a background job shortly after the last change. The file is
+ * replaced through a temporary file, an interrupted replace is recovered when the store is loaded.
+ * <p>
+ * Per-project <code>&lt;project&gt;.lifecyclemapping</code> files written by earlier versions are migrated when the
+ * store is first loaded, configuration of projects that no longer exist in the workspace is dropped.
+ *
+ * @author igor
+ */
+class LifecycleMappingConfigurationStore {
+  private static final Logger log = LoggerFactory.getLogger(LifecycleMappingConfigurationStore.class);
+
+  private static final String STORE_FILE = "lifecyclemapping.state"; //$NON-NLS-1$
+
+  private static final String LEGACY_FILE_SUFFIX = ".lifecyclemapping"; //$NON-NLS-1$
+
+  private static final int STORE_VERSION = 1;
+
+  private static final long FLUSH_DELAY = 1000L;
+
+  private final File stateLocationDir;
+
+  private final File storeFile;
+
+  private final File tmpFile;
+
+  private final File oldFile;
+
+  /**
+   * Serialized configurations keyed by project name, null if the store has not been loaded yet. Guarded by this.
+   */
+  private Map<String, byte[]> configurations;
+
+  private boolean dirty;
+
+  private boolean disposed;
+
+  private final Job flushJob = new Job(Messages.LifecycleMappingConfigurationStore_job_title) {
+    protected IStatus run(IProgressMonitor monitor) {
+      flush();
+      return Status.OK_STATUS;
+    }
+  };
+
+  public LifecycleMappingConfigurationStore(File stateLocationDir) {
+    this.stateLocationDir = stateLocationDir;
+    this.storeFile = new File(stateLocationDir, STORE_FILE);
+    this.tmpFile = new File(stateLocationDir, STORE_FILE + ".tmp"); //$NON-NLS-1$
+    this.oldFile = new File(stateLocationDir, STORE_FILE + ".old"); //$NON-NLS-1$
+    flushJob.setSystem(true);
+  }
+
+  public synchronized void put(String projectName, LifecycleMappingConfiguration configuration) throws IOException {
+    ByteArrayOutputStream buf = new ByteArrayOutputStream();
+    ObjectOutputStream oos = new ObjectOutputStream(buf);
+    oos.writeObject(configuration);
+    oos.close();
+    getConfigurations().put(projectName, buf.toByteArray());
+    changed();
+  }
+
+  /**
+   * Returns configuration of the project or null if the project does not have persisted configuration or the
+   * configuration cannot be read.
+   */
+  public LifecycleMappingConfiguration get(String projectName) throws IOException, ClassNotFoundException {
+    byte[] bytes;
+    synchronized(this) {
+      bytes = getConfigurations().get(projectName);
+    }
+    if(bytes == null) {
+      return null;
+    }
+    ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(bytes));
+    try {
+      Object obj = ois.readObject();
+      return obj instanceof LifecycleMappingConfiguration ? (LifecycleMappingConfiguration) obj : null;
+    } finally {
+      IOUtil.close(ois);
+    }
+  }
+
+  public synchronized void remove(String projectName) {
+    if(getConfigurations().remove(projectName) != null) {
+      changed();
+    }
+  }
+
+  public synchronized void rename(String oldProjectName, String newProjectName) {
+    byte[] bytes = getConfigurations().remove(oldProjectName);
+    if(bytes != null) {
+      configurations.put(newProjectName, bytes);
+      changed();
+    }
+  }
+
+  private void changed() {
+    dirty = true;
+    if(!disposed) {
+      flushJob.schedule(FLUSH_DELAY);
+    }
+  }
+
+  /**
+   * Cancels scheduled background flush and writes changed configurations to disk. Changes made after the store was
+   * disposed are only written by explicit {@link #flush()}.
+   */
+  public void dispose() {
+    synchronized(this) {
+      disposed = true;
+    }
+    flushJob.cancel();
+    try {
+      flushJob.join();
+    } catch(InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    }
+    flush();
+  }
+
+  /**
+   * Writes changed configurations to disk.
+   */
+  public synchronized void flush() {
+    if(!dirty) {
+      return;
+    }
+    try {
+      write();
+      dirty = false;
+    } catch(IOException ex) {
+      log.warn("Could not write lifecycle mapping configuration to " + storeFile, ex);
+    }
+  }
+
+  private Map<String, byte[]> getConfigurations() {
+    if(configurations == null) {
+      configurations = new TreeMap<String, byte[]>();
+      // write() may have been interrupted while replacing the store file, the new content is complete in the
+      // temporary file once the store file has been moved aside
+      for(File file : new File[] {storeFile, tmpFile, oldFile}) {
+        if(file.isFile()) {
+          try {
+            read(file);
+            dirty = file != storeFile;
+            break;
+          } catch(IOException ex) {
+            log.warn("Could not read lifecycle mapping configuration from " + file, ex);
+            configurations.clear();
+          }
+        }
+      }
+      File[] legacyFiles = migrate();
+      removeMissingProjects();
+      if(legacyFiles.length > 0) {
+        dirty = true;
+        flush();
+        if(!dirty) {
+          for(File legacyFile : legacyFiles) {
+            legacyFile.delete();
+          }
+        }
+      } else if(dirty && !disposed) {
+        flushJob.schedule(FLUSH_DELAY);
+      }
+    }
+    return configurations;
+  }
+
+  private void read(File file) throws IOException {
+    DataInputStream is = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+    try {
+      if(is.readInt() != STORE_VERSION) {
+        throw new IOException("Unsupported lifecycle mapping configuration store version");
+      }
+      int count = is.readInt();
+      for(int i = 0; i < count; i++ ) {
+        String projectName = is.readUTF();
+        byte[] bytes = new byte[is.readInt()];
+        is.readFully(bytes);
+        configurations.put(projectName, bytes);
+      }
+    } finally {
+      IOUtil.close(is);
+    }
+  }
+
+  private void write() throws IOException {
+    DataOutputStream os = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmpFile)));
+    try {
+      os.writeInt(STORE_VERSION);
+      os.writeInt(configurations.size());
+      for(Map.Entry<String, byte[]> entry : configurations.entrySet()) {
+        os.writeUTF(entry.getKey());
+        os.writeInt(entry.getValue().length);
+        os.write(entry.getValue());
+      }
+    } finally {
+      IOUtil.close(os);
+    }
+    if(tmpFile.renameTo(storeFile)) {
+      return;
+    }
+    // can't rename over existing file on some platforms, keep the old file until the new one is in place
+    oldFile.delete();
+    if(storeFile.exists() && !storeFile.renameTo(oldFile)) {
+      throw new IOException("Could not rename " + storeFile + " to " + oldFile);
+    }
+    if(!tmpFile.renameTo(storeFile)) {
+      oldFile.renameTo(storeFile);
+      throw new IOException("Could not rename " + tmpFile + " to " + storeFile);
+    }
+    oldFile.delete();
+  }
+
+  /**
+   * Reads per-project configuration files written by earlier versions into the store. Returns the legacy files.
+   */
+  private File[] migrate() {
+    File[] legacyFiles = stateLocationDir.listFiles(new FilenameFilter() {
+      public boolean accept(File dir, String name) {
+        return name.endsWith(LEGACY_FILE_SUFFIX);
+      }
+    });
+    if(legacyFiles == null) {
+      return new File[0];
+    }
+    for(File legacyFile : legacyFiles) {
+      String name = legacyFile.getName();
+      String projectName = name.substring(0, name.length() - LEGACY_FILE_SUFFIX.length());
+      if(!configurations.containsKey(projectName)) {
+        try {
+          byte[] bytes = new byte[(int) legacyFile.length()];
+          DataInputStream is = new DataInputStream(new FileInputStream(legacyFile));
+          try {
+            is.readFully(bytes);
+          } finally {
+            IOUtil.close(is);
+          }
+          configurations.put(projectName, bytes);
+        } catch(IOException ex) {
+          log.debug("Could not migrate lifecycle mapping configuration {}", legacyFile.getAbsolutePath(), ex); //$NON-NLS-1$
+        }
+      }
+    }
+    return legacyFiles;
+  }
+
+  private void removeMissingProjects() {
+    IWorkspaceRoot root = ResourcesPlugin.getWorkspace().getRoot();
+    Iterator<String> names = configurations.keySet().iterator();
+    while(names.hasNext()) {
+      if(!root.getProject(names.next()).exists()) {
+        names.remove();
+        dirty = true;
+      }
+    }
+  }
+}
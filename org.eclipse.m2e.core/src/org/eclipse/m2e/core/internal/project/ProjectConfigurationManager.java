@@ -40,6 +40,7 @@ import org.eclipse.core.resources.IProjectDescription;
 import org.eclipse.core.resources.IResource;
 import org.eclipse.core.resources.IResourceChangeEvent;
 import org.eclipse.core.resources.IResourceChangeListener;
+import org.eclipse.core.resources.IResourceDelta;
 import org.eclipse.core.resources.IWorkspace;
 import org.eclipse.core.resources.IWorkspaceRoot;
 import org.eclipse.core.resources.ResourcesPlugin;
@@ -236,15 +237,20 @@ public class ProjectConfigurationManager implements IProjectConfigurationManager
     sortProjects(facades, progress.newChild(5));
     //Then, perform detailed project configuration
     subProgress = SubMonitor.convert(progress.newChild(15), facades.size() * 100);
-    for(IMavenProjectFacade facade : facades) {
-      if(progress.isCanceled()) {
-        throw new OperationCanceledException();
+    try {
+      for(IMavenProjectFacade facade : facades) {
+        if(progress.isCanceled()) {
+          throw new OperationCanceledException();
+        }
+        progress.subTask(NLS.bind(Messages.ProjectConfigurationManager_task_updating, facade.getProject().getName()));
+        MavenProject mavenProject = facade.getMavenProject(subProgress.newChild(5));
+        MavenSession mavenSession = createMavenSession(facade, subProgress.newChild(5));
+        ProjectConfigurationRequest request = new ProjectConfigurationRequest(facade, mavenProject, mavenSession, false /*updateSources*/);
+        updateProjectConfiguration(request, subProgress.newChild(90));
       }
-      progress.subTask(NLS.bind(Messages.ProjectConfigurationManager_task_updating, facade.getProject().getName()));
-      MavenProject mavenProject = facade.getMavenProject(subProgress.newChild(5));
-      MavenSession mavenSession = createMavenSession(facade, subProgress.newChild(5));
-      ProjectConfigurationRequest request = new ProjectConfigurationRequest(facade, mavenProject, mavenSession, false /*updateSources*/);
-      updateProjectConfiguration(request, subProgress.newChild(90));
+    } finally {
+      // persist lifecycle mapping configuration of all projects at once
+      LifecycleMappingConfiguration.flush();
     }
   }
 
@@ -279,6 +285,7 @@ public class ProjectConfigurationManager implements IProjectConfigurationManager
       if (facade != null) { // facade is null if pom.xml cannot be read
         ProjectConfigurationRequest request = new ProjectConfigurationRequest(facade, facade.getMavenProject(monitor),
             createMavenSession(facade, monitor), true /*updateSources*/);
+        // lifecycle mapping configuration is written by the store's background flush
         updateProjectConfiguration(request, monitor);
       }
     }
@@ -793,6 +800,15 @@ public class ProjectConfigurationManager implements IProjectConfigurationManager
   public void resourceChanged(IResourceChangeEvent event) {
     if(event.getType() == IResourceChangeEvent.PRE_DELETE && event.getResource() instanceof IProject) {
       LifecycleMappingConfiguration.remove((IProject) event.getResource());
+    } else if(event.getType() == IResourceChangeEvent.POST_CHANGE && event.getDelta() != null) {
+      // keep lifecycle mapping configuration of renamed projects
+      IWorkspaceRoot root = ResourcesPlugin.getWorkspace().getRoot();
+      for(IResourceDelta delta : event.getDelta().getAffectedChildren(IResourceDelta.ADDED)) {
+        if(delta.getResource() instanceof IProject && (delta.getFlags() & IResourceDelta.MOVED_FROM) != 0) {
+          IProject oldProject = root.getProject(delta.getMovedFromPath().lastSegment());
+          LifecycleMappingConfiguration.rename(oldProject, (IProject) delta.getResource());
+        }
+      }
     }
   }
 }
@@ -0,0 +1,116 @@
+/*******************************************************************************
+ * Copyright (c) 2008-2010 Sonatype, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *      Sonatype, Inc. - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.m2e.core.internal.project;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+
+/**
+ * Workspace state files read by CLI resolvers, written by {@link WorkspaceStateWriter}.
+ * <p>
+ * The workspace artifact map is written twice, as java.util.Properties file for CLI resolvers that only support that
+ * format, and as binary file that can be searched in place without parsing the whole file. All numbers in the binary
+ * file are big-endian ints.
+ * 
+ * <pre>
+ * magic, version, entry count
+ * entry offsets, one per entry, in ascending key order
+ * entries, each key length, key UTF-8 bytes, value length, value UTF-8 bytes
+ * </pre>
+ * 
+ * Keys are <code>groupId:artifactId:extension:baseVersion</code>, values are canonical paths of the pom file or the
+ * output folder. The files are replaced through a temporary file, so concurrent readers see either the old or the new
+ * state. On platforms that can't rename over an existing file, the old file is kept aside until the new one is in
+ * place and readers retry opening a missing binary file.
+ */
+class WorkspaceStateFile {
+
+  /**
+   * "M2WS", must match org.eclipse.m2e.cli.WorkspaceState
+   */
+  private static final int MAGIC = 0x4D325753;
+
+  private static final int VERSION = 1;
+
+  private static final String ENCODING = "UTF-8"; //$NON-NLS-1$
+
+  static void writeProperties(Map<String, String> state, File stateFile) throws IOException {
+    Properties properties = new Properties();
+    properties.putAll(state);
+
+    File tmpFile = new File(stateFile.getParentFile(), stateFile.getName() + ".tmp"); //$NON-NLS-1$
+    OutputStream os = new BufferedOutputStream(new FileOutputStream(tmpFile));
+    try {
+      properties.store(os, null);
+    } finally {
+      os.close();
+    }
+    replace(tmpFile, stateFile);
+  }
+
+  static void writeBinary(Map<String, String> state, File stateFile) throws IOException {
+    List<byte[]> keys = new ArrayList<byte[]>(state.size());
+    List<byte[]> values = new ArrayList<byte[]>(state.size());
+    for(Map.Entry<String, String> entry : state.entrySet()) {
+      keys.add(entry.getKey().getBytes(ENCODING));
+      values.add(entry.getValue().getBytes(ENCODING));
+    }
+
+    File tmpFile = new File(stateFile.getParentFile(), stateFile.getName() + ".tmp"); //$NON-NLS-1$
+    DataOutputStream os = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmpFile)));
+    try {
+      os.writeInt(MAGIC);
+      os.writeInt(VERSION);
+      os.writeInt(keys.size());
+      int offset = 4 * (3 + keys.size());
+      for(int i = 0; i < keys.size(); i++ ) {
+        os.writeInt(offset);
+        offset += 4 + keys.get(i).length + 4 + values.get(i).length;
+      }
+      for(int i = 0; i < keys.size(); i++ ) {
+        os.writeInt(keys.get(i).length);
+        os.write(keys.get(i));
+        os.writeInt(values.get(i).length);
+        os.write(values.get(i));
+      }
+    } finally {
+      os.close();
+    }
+    replace(tmpFile, stateFile);
+  }
+
+  private static void replace(File tmpFile, File stateFile) throws IOException {
+    if(tmpFile.renameTo(stateFile)) {
+      return;
+    }
+    // can't rename over existing file on some platforms, keep the old file until the new one is in place
+    File oldFile = new File(stateFile.getParentFile(), stateFile.getName() + ".old"); //$NON-NLS-1$
+    oldFile.delete();
+    if(stateFile.exists() && !stateFile.renameTo(oldFile)) {
+      throw new IOException("Could not rename " + stateFile + " to " + oldFile);
+    }
+    if(!tmpFile.renameTo(stateFile)) {
+      oldFile.renameTo(stateFile);
+      throw new IOException("Could not rename " + tmpFile + " to " + stateFile);
+    }
+    oldFile.delete();
+  }
+}
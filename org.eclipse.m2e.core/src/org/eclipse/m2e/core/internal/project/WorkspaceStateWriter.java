@@ -11,12 +11,10 @@
 
 package org.eclipse.m2e.core.internal.project;
 
-import java.io.BufferedOutputStream;
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.OutputStream;
-import java.util.Properties;
+import java.util.Map;
+import java.util.TreeMap;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -37,20 +35,29 @@ import org.eclipse.m2e.core.project.MavenProjectChangedEvent;
 import org.eclipse.m2e.core.project.MavenProjectManager;
 
 /**
- * Maintains map file of maven artifacts present in workspace.   
+ * Maintains map file of maven artifacts present in workspace.
+ * <p>
+ * The map is read by CLI resolvers of every Maven launch that uses workspace resolution and is only written when the
+ * workspace state changes, see {@link WorkspaceStateFile} for the file formats.
  */
 public class WorkspaceStateWriter implements IMavenProjectChangedListener {
   private static final Logger log = LoggerFactory.getLogger(WorkspaceStateWriter.class);
 
   private MavenProjectManager projectManager;
 
+  /**
+   * State written to the file last time, null if the file has not been written by this instance yet. Guarded by
+   * this.
+   */
+  private Map<String, String> writtenState;
+
   public WorkspaceStateWriter(MavenProjectManager projectManager) {
     this.projectManager = projectManager;
   }
   
   public void mavenProjectChanged(MavenProjectChangedEvent[] events, IProgressMonitor monitor) {
     try {
-      Properties state = new Properties();
+      Map<String, String> state = new TreeMap<String, String>();
 
       IWorkspaceRoot root = ResourcesPlugin.getWorkspace().getRoot();
       for(IMavenProjectFacade projectFacade : projectManager.getProjects()) {
@@ -76,11 +83,13 @@ public class WorkspaceStateWriter implements IMavenProjectChangedListener {
         }
       }
 
-      OutputStream buf = new BufferedOutputStream(new FileOutputStream(projectManager.getWorkspaceStateFile()));
-      try {
-        state.store(buf, null);
-      } finally {
-        buf.close();
+      synchronized(this) {
+        if(state.equals(writtenState)) {
+          return;
+        }
+        WorkspaceStateFile.writeProperties(state, projectManager.getWorkspaceStateFile());
+        WorkspaceStateFile.writeBinary(state, projectManager.getWorkspaceBinaryStateFile());
+        writtenState = state;
       }
     } catch(IOException ex) {
       log.error("Error writing workspace state file", ex);
@@ -32,7 +32,12 @@ import org.eclipse.m2e.core.project.IMavenProjectFacade;
 public abstract class AbstractMavenDependencyResolver {
 
   private ProjectRegistryManager manager;
-  private MutableProjectRegistry contextRegistry;
+
+  /**
+   * Resolver instances are shared by all projects that use the same lifecycle mapping, the context registry is
+   * associated with the refresh thread that resolves project dependencies.
+   */
+  private final ThreadLocal<MutableProjectRegistry> contextRegistry = new ThreadLocal<MutableProjectRegistry>();
 
   protected IMaven getMaven() {
     return manager.getMaven();
@@ -49,10 +54,14 @@ public abstract class AbstractMavenDependencyResolver {
   public abstract void resolveProjectDependencies(IMavenProjectFacade facade, MavenExecutionRequest mavenRequest, Set<Capability> capabilities, Set<RequiredCapability> requirements, IProgressMonitor monitor) throws CoreException;
 
   void setContextProjectRegistry(MutableProjectRegistry contextRegistry) {
-    this.contextRegistry = contextRegistry;
+    if(contextRegistry != null) {
+      this.contextRegistry.set(contextRegistry);
+    } else {
+      this.contextRegistry.remove();
+    }
   }
 
   protected List<MavenProjectFacade> getProjects() {
-    return Arrays.asList(contextRegistry.getProjects());
+    return Arrays.asList(contextRegistry.get().getProjects());
   }
 }
@@ -14,6 +14,7 @@ package org.eclipse.m2e.core.internal.project.registry;
 import java.io.Serializable;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Map;
 import java.util.Set;
 
@@ -37,27 +38,34 @@ abstract class BasicProjectRegistry implements Serializable {
   /**
    * Map<ArtifactKey, IPath> Maps ArtifactKey to full workspace IPath of the POM file that defines this artifact.
    */
-  protected final Map<ArtifactKey, IFile> workspaceArtifacts = new HashMap<ArtifactKey, IFile>();
+  protected final CopyOnWriteHashMap<ArtifactKey, IFile> workspaceArtifacts = new CopyOnWriteHashMap<ArtifactKey, IFile>();
 
   /**
    * Maps full pom IPath to MavenProjectFacade
    */
-  protected final Map<IFile, MavenProjectFacade> workspacePoms = new HashMap<IFile, MavenProjectFacade>();
+  protected final CopyOnWriteHashMap<IFile, MavenProjectFacade> workspacePoms = new CopyOnWriteHashMap<IFile, MavenProjectFacade>();
 
   /**
-   * Maps required capabilities to projects that require them.
+   * Maps required capabilities to projects that require them. Nested maps and sets can be shared with other
+   * registries and must be modified using {@link #getWritableRequirements(VersionlessKey, boolean)} and
+   * {@link #getWritablePoms(Map, RequiredCapability, boolean)}.
    */
-  protected final Map<VersionlessKey, Map<RequiredCapability, Set<IFile>>> requiredCapabilities = new HashMap<VersionlessKey, Map<RequiredCapability, Set<IFile>>>();
+  protected final CopyOnWriteHashMap<VersionlessKey, Map<RequiredCapability, Set<IFile>>> requiredCapabilities = new CopyOnWriteHashMap<VersionlessKey, Map<RequiredCapability, Set<IFile>>>();
 
   /**
    * Maps project pom.xml file to the capabilities provided by the project
    */
-  protected final Map<IFile, Set<Capability>> projectCapabilities = new HashMap<IFile, Set<Capability>>();
+  protected final CopyOnWriteHashMap<IFile, Set<Capability>> projectCapabilities = new CopyOnWriteHashMap<IFile, Set<Capability>>();
 
   /**
    * Maps project pom.xml file to the capabilities required by the project
    */
-  protected final Map<IFile, Set<RequiredCapability>> projectRequirements = new HashMap<IFile, Set<RequiredCapability>>();
+  protected final CopyOnWriteHashMap<IFile, Set<RequiredCapability>> projectRequirements = new CopyOnWriteHashMap<IFile, Set<RequiredCapability>>();
+
+  /**
+   * Nested requiredCapabilities maps and sets created by this registry and not shared with any other registry.
+   */
+  private transient Map<Object, Object> writableValues;
 
   protected BasicProjectRegistry() {
   }
@@ -66,33 +74,75 @@ abstract class BasicProjectRegistry implements Serializable {
     replaceWith(other);
   }
 
+  /**
+   * Makes this registry share contents of the other registry. This does not copy individual entries and takes
+   * constant time, see {@link CopyOnWriteHashMap}.
+   */
   protected final void replaceWith(BasicProjectRegistry other) {
-    clear();
+    workspaceArtifacts.replaceWith(other.workspaceArtifacts);
+    workspacePoms.replaceWith(other.workspacePoms);
+    projectCapabilities.replaceWith(other.projectCapabilities);
+    projectRequirements.replaceWith(other.projectRequirements);
+    requiredCapabilities.replaceWith(other.requiredCapabilities);
+
+    // nested values are now shared
+    writableValues = null;
+    other.writableValues = null;
+  }
+
+  private boolean isWritable(Object value) {
+    return writableValues != null && writableValues.containsKey(value);
+  }
 
-    copy(other.workspaceArtifacts, workspaceArtifacts);
-    copy(other.workspacePoms, workspacePoms);
-    copy(other.projectCapabilities, projectCapabilities);
-    copy(other.projectRequirements, projectRequirements);
-    copy(other.requiredCapabilities, requiredCapabilities);
+  private void setWritable(Object value) {
+    if(writableValues == null) {
+      writableValues = new IdentityHashMap<Object, Object>();
+    }
+    writableValues.put(value, value);
   }
 
   /**
-   * THIS IS NOT A GENERIC DEEP COPY IMPLEMENTATION!
+   * Returns requiredCapabilities entry for the key that can be modified in place, or null if there is no entry for
+   * the key and create is false.
    */
-  @SuppressWarnings({"unchecked", "rawtypes"})
-  private static void copy(Map from, Map to) {
-    for(Map.Entry entry : (Set<Map.Entry>) from.entrySet()) {
-      Object value = entry.getValue();
-      if(value instanceof Map) {
-        Map map = new HashMap();
-        copy((Map) value, map);
-        value = map;
-      } else if(value instanceof Set) {
-        Set set = new HashSet((Set) value);
-        value = set;
-      }
-      to.put(entry.getKey(), value);
+  protected Map<RequiredCapability, Set<IFile>> getWritableRequirements(VersionlessKey key, boolean create) {
+    Map<RequiredCapability, Set<IFile>> requirements = requiredCapabilities.get(key);
+    if(requirements != null && isWritable(requirements)) {
+      return requirements;
+    }
+    if(requirements == null && !create) {
+      return null;
     }
+    requirements = requirements != null ? new HashMap<RequiredCapability, Set<IFile>>(requirements)
+        : new HashMap<RequiredCapability, Set<IFile>>();
+    setWritable(requirements);
+    requiredCapabilities.put(key, requirements);
+    return requirements;
+  }
+
+  /**
+   * Returns set of poms that require the capability that can be modified in place, or null if there is no such set
+   * and create is false. The requirements map must be obtained from
+   * {@link #getWritableRequirements(VersionlessKey, boolean)}.
+   */
+  protected Set<IFile> getWritablePoms(Map<RequiredCapability, Set<IFile>> requirements, RequiredCapability req,
+      boolean create) {
+    Set<IFile> poms = requirements.get(req);
+    if(poms != null && isWritable(poms)) {
+      return poms;
+    }
+    if(poms == null && !create) {
+      return null;
+    }
+    poms = poms != null ? new HashSet<IFile>(poms) : new HashSet<IFile>();
+    setWritable(poms);
+    requirements.put(req, poms);
+    return poms;
+  }
+
+  protected void addRequiredCapability(IFile pom, RequiredCapability req) {
+    Map<RequiredCapability, Set<IFile>> keyEntry = getWritableRequirements(req.getVersionlessKey(), true);
+    getWritablePoms(keyEntry, req, true).add(pom);
   }
 
   public MavenProjectFacade getProjectFacade(IFile pom) {
@@ -124,6 +174,7 @@ abstract class BasicProjectRegistry implements Serializable {
     requiredCapabilities.clear();
     projectCapabilities.clear();
     projectRequirements.clear();
+    writableValues = null;
   }
 
   public boolean isValid() {
@@ -148,4 +199,40 @@ abstract class BasicProjectRegistry implements Serializable {
   protected Set<RequiredCapability> getProjectRequirements(IFile pom) {
     return projectRequirements.get(pom);
   }
+
+  protected Set<Capability> getProjectCapabilities(IFile pom) {
+    return projectCapabilities.get(pom);
+  }
+
+  /**
+   * Returns all pom files that have a facade, capabilities or requirements in this registry.
+   */
+  protected Set<IFile> getPersistentPoms() {
+    Set<IFile> poms = new HashSet<IFile>();
+    poms.addAll(workspacePoms.keySet());
+    poms.addAll(projectCapabilities.keySet());
+    poms.addAll(projectRequirements.keySet());
+    return poms;
+  }
+
+  /**
+   * Adds project state read from the persistent workspace state. Does not remove anything, so can only be used to
+   * populate empty registry.
+   */
+  protected void restoreProject(IFile pom, MavenProjectFacade facade, Set<Capability> capabilities,
+      Set<RequiredCapability> requirements) {
+    if(facade != null) {
+      workspacePoms.put(pom, facade);
+      workspaceArtifacts.put(facade.getArtifactKey(), pom);
+    }
+    if(capabilities != null) {
+      projectCapabilities.put(pom, capabilities);
+    }
+    if(requirements != null) {
+      projectRequirements.put(pom, requirements);
+      for(RequiredCapability requirement : requirements) {
+        addRequiredCapability(pom, requirement);
+      }
+    }
+  }
 }
@@ -0,0 +1,211 @@
+/*******************************************************************************
+ * Copyright (c) 2008-2010 Sonatype, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *      Sonatype, Inc. - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.m2e.core.internal.project.registry;
+
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+
+/**
+ * Hash map that can share its entries with other maps. Entries are kept in a fixed number of segments and
+ * {@link #replaceWith(CopyOnWriteHashMap)} only copies references to the segments. Shared segments are copied the
+ * first time either of the maps modifies them, so a map that was populated from another map and then changed a few
+ * entries only holds copies of segments of the changed entries.
+ * <p>
+ * Values are shared as well, callers must not modify values that may be shared with other maps. This class is not
+ * thread safe.
+ *
+ * @author igor
+ */
+class CopyOnWriteHashMap<K, V> extends AbstractMap<K, V> implements Serializable {
+
+  private static final long serialVersionUID = 2830127052375339262L;
+
+  private static final int SEGMENTS = 64;
+
+  /**
+   * Segments, null if the segment is empty
+   */
+  private HashMap<K, V>[] segments = newSegments();
+
+  /**
+   * true if the segment is not shared with other maps and can be modified in place
+   */
+  private boolean[] owned = new boolean[SEGMENTS];
+
+  private int size;
+
+  @SuppressWarnings("unchecked")
+  private static <K, V> HashMap<K, V>[] newSegments() {
+    return new HashMap[SEGMENTS];
+  }
+
+  /**
+   * Replaces contents of this map with contents of the other map. All segments become shared between the two maps.
+   */
+  public void replaceWith(CopyOnWriteHashMap<K, V> other) {
+    segments = other.segments.clone();
+    owned = new boolean[SEGMENTS];
+    other.owned = new boolean[SEGMENTS];
+    size = other.size;
+  }
+
+  /**
+   * Returns keys that may map to different values in this and the other map. The result is a superset of the actual
+   * changes, but only includes keys of segments not shared between the two maps.
+   */
+  public Set<K> getChangedKeys(CopyOnWriteHashMap<K, V> other) {
+    Set<K> result = new HashSet<K>();
+    for(int i = 0; i < SEGMENTS; i++ ) {
+      if(segments[i] != other.segments[i]) {
+        if(segments[i] != null) {
+          result.addAll(segments[i].keySet());
+        }
+        if(other.segments[i] != null) {
+          result.addAll(other.segments[i].keySet());
+        }
+      }
+    }
+    return result;
+  }
+
+  private static int segmentFor(Object key) {
+    int h = key != null ? key.hashCode() : 0;
+    h ^= (h >>> 20) ^ (h >>> 12);
+    h ^= (h >>> 7) ^ (h >>> 4);
+    return h & (SEGMENTS - 1);
+  }
+
+  private HashMap<K, V> getWritableSegment(int i) {
+    if(!owned[i]) {
+      segments[i] = segments[i] != null ? new HashMap<K, V>(segments[i]) : new HashMap<K, V>();
+      owned[i] = true;
+    }
+    return segments[i];
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public V get(Object key) {
+    HashMap<K, V> segment = segments[segmentFor(key)];
+    return segment != null ? segment.get(key) : null;
+  }
+
+  public boolean containsKey(Object key) {
+    HashMap<K, V> segment = segments[segmentFor(key)];
+    return segment != null && segment.containsKey(key);
+  }
+
+  public V put(K key, V value) {
+    HashMap<K, V> segment = getWritableSegment(segmentFor(key));
+    int oldSize = segment.size();
+    V oldValue = segment.put(key, value);
+    size += segment.size() - oldSize;
+    return oldValue;
+  }
+
+  public V remove(Object key) {
+    int i = segmentFor(key);
+    if(segments[i] == null || !segments[i].containsKey(key)) {
+      return null;
+    }
+    size-- ;
+    return getWritableSegment(i).remove(key);
+  }
+
+  public void clear() {
+    segments = newSegments();
+    owned = new boolean[SEGMENTS];
+    size = 0;
+  }
+
+  public Set<Map.Entry<K, V>> entrySet() {
+    return new AbstractSet<Map.Entry<K, V>>() {
+      public Iterator<Map.Entry<K, V>> iterator() {
+        return new EntryIterator();
+      }
+
+      public int size() {
+        return size;
+      }
+    };
+  }
+
+  private class EntryIterator implements Iterator<Map.Entry<K, V>> {
+    private int index = -1;
+
+    private HashMap<K, V> segment;
+
+    private Iterator<Map.Entry<K, V>> iterator;
+
+    // segment and iterator of the last returned entry
+
+    private Map.Entry<K, V> current;
+
+    private int currentIndex;
+
+    private HashMap<K, V> currentSegment;
+
+    private Iterator<Map.Entry<K, V>> currentIterator;
+
+    EntryIterator() {
+      advance();
+    }
+
+    private void advance() {
+      while((iterator == null || !iterator.hasNext()) && index < SEGMENTS - 1) {
+        index++ ;
+        segment = segments[index];
+        iterator = segment != null ? segment.entrySet().iterator() : null;
+      }
+    }
+
+    public boolean hasNext() {
+      return iterator != null && iterator.hasNext();
+    }
+
+    public Map.Entry<K, V> next() {
+      if(!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      current = iterator.next();
+      currentIndex = index;
+      currentSegment = segment;
+      currentIterator = iterator;
+      advance();
+      return current;
+    }
+
+    public void remove() {
+      if(current == null) {
+        throw new IllegalStateException();
+      }
+      if(owned[currentIndex] && segments[currentIndex] == currentSegment) {
+        currentIterator.remove();
+      } else {
+        // keep iterating the shared segment, remove from the private copy
+        getWritableSegment(currentIndex).remove(current.getKey());
+      }
+      size-- ;
+      current = null;
+    }
+  }
+}
@@ -52,17 +52,33 @@ public class DefaultMavenDependencyResolver extends AbstractMavenDependencyResol
   public void resolveProjectDependencies(IMavenProjectFacade facade, MavenExecutionRequest mavenRequest,
       Set<Capability> capabilities, Set<RequiredCapability> requirements, IProgressMonitor monitor)
       throws CoreException {
-    long start = System.currentTimeMillis();
-    log.debug("Resolving dependencies for {}", facade.toString()); //$NON-NLS-1$
+    MavenExecutionResult mavenResult = resolveProjectDependencies(facade, mavenRequest, requirements, monitor);
+    addMarkers(facade, mavenResult);
+  }
 
+  /**
+   * Replaces dependency resolution markers of the project pom with problems of the execution result. Markers are
+   * workspace changes and must be created by the thread that holds the refresh scheduling rule.
+   */
+  void addMarkers(IMavenProjectFacade facade, MavenExecutionResult mavenResult) throws CoreException {
     markerManager.deleteMarkers(facade.getPom(), IMavenConstants.MARKER_DEPENDENCY_ID);
+    markerManager.addMarkers(facade.getPom(), IMavenConstants.MARKER_DEPENDENCY_ID, mavenResult);
+  }
 
-    MavenExecutionResult mavenResult = getMaven().readProject(mavenRequest, monitor);
+  /**
+   * Resolves project dependencies without changing the workspace, so it can be called concurrently for different
+   * projects. Returned execution result is expected to be passed to {@link #addMarkers(IMavenProjectFacade,
+   * MavenExecutionResult)}.
+   */
+  MavenExecutionResult resolveProjectDependencies(IMavenProjectFacade facade, MavenExecutionRequest mavenRequest,
+      Set<RequiredCapability> requirements, IProgressMonitor monitor) throws CoreException {
+    long start = System.currentTimeMillis();
+    log.debug("Resolving dependencies for {}", facade.toString()); //$NON-NLS-1$
 
-    markerManager.addMarkers(facade.getPom(), IMavenConstants.MARKER_DEPENDENCY_ID, mavenResult);
+    MavenExecutionResult mavenResult = getMaven().readProject(mavenRequest, monitor);
 
     if(!facade.getResolverConfiguration().shouldResolveWorkspaceProjects()) {
-      return;
+      return mavenResult;
     }
 
     MavenProject mavenProject = facade.getMavenProject();
@@ -103,5 +119,6 @@ public class DefaultMavenDependencyResolver extends AbstractMavenDependencyResol
     }
 
     log.debug("Resolved dependencies for {} in {} ms", facade.toString(), System.currentTimeMillis() - start); //$NON-NLS-1$
+    return mavenResult;
   }
 }
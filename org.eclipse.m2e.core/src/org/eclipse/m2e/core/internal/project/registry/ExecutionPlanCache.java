@@ -0,0 +1,120 @@
+/*******************************************************************************
+ * Copyright (c) 2008-2010 Sonatype, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *      Sonatype, Inc. - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.m2e.core.internal.project.registry;
+
+import java.io.UnsupportedEncodingException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.maven.artifact.repository.ArtifactRepository;
+import org.apache.maven.model.Dependency;
+import org.apache.maven.model.Plugin;
+import org.apache.maven.model.PluginExecution;
+import org.apache.maven.model.Profile;
+import org.apache.maven.plugin.MojoExecution;
+import org.apache.maven.project.MavenProject;
+
+import org.eclipse.m2e.core.project.ResolverConfiguration;
+
+
+/**
+ * Memoizes project execution plans. Plans only depend on project packaging, effective build plugins, plugin
+ * repositories and the resolver configuration, so modules that inherit identical build configuration from the same
+ * parent share the plans calculated for the first of them. Plans are keyed on a digest of these parts of the project
+ * model, active profiles and the resolver configuration.
+ * <p>
+ * Projects with build extensions are not cached, their plans are calculated in project-specific class realms.
+ *
+ * @author igor
+ */
+class ExecutionPlanCache {
+
+  private static final int MAX_SIZE = 256;
+
+  private final Map<String, Map<String, List<MojoExecution>>> plans = new LinkedHashMap<String, Map<String, List<MojoExecution>>>(
+      16, 0.75f, true) {
+    private static final long serialVersionUID = -6251532460307357375L;
+
+    protected boolean removeEldestEntry(Map.Entry<String, Map<String, List<MojoExecution>>> eldest) {
+      return size() > MAX_SIZE;
+    }
+  };
+
+  public synchronized Map<String, List<MojoExecution>> get(String key) {
+    return plans.get(key);
+  }
+
+  public synchronized void put(String key, Map<String, List<MojoExecution>> executionPlans) {
+    plans.put(key, executionPlans);
+  }
+
+  public synchronized void clear() {
+    plans.clear();
+  }
+
+  /**
+   * Returns cache key of the project execution plans or null if the plans cannot be cached.
+   */
+  public static String getKey(MavenProject project, ResolverConfiguration resolverConfiguration) {
+    if(!project.getBuildExtensions().isEmpty()) {
+      return null;
+    }
+
+    StringBuilder sb = new StringBuilder();
+    sb.append(project.getPackaging()).append('\n');
+    // workspace resolution changes how build plugins are resolved
+    sb.append("resolveWorkspaceProjects ").append(resolverConfiguration.shouldResolveWorkspaceProjects()).append('\n'); //$NON-NLS-1$
+    sb.append("activeProfiles ").append(resolverConfiguration.getActiveProfiles()).append('\n'); //$NON-NLS-1$
+    for(Profile profile : project.getActiveProfiles()) {
+      sb.append("profile ").append(profile.getId()).append('\n'); //$NON-NLS-1$
+    }
+    for(ArtifactRepository repository : project.getPluginArtifactRepositories()) {
+      sb.append("repository ").append(repository.getId()).append('=').append(repository.getUrl()).append('\n'); //$NON-NLS-1$
+    }
+    for(Plugin plugin : project.getBuildPlugins()) {
+      if(plugin.isExtensions()) {
+        return null;
+      }
+      sb.append("plugin ").append(plugin.getKey()).append(':').append(plugin.getVersion()).append('\n'); //$NON-NLS-1$
+      sb.append(plugin.getConfiguration()).append('\n');
+      for(Dependency dependency : plugin.getDependencies()) {
+        sb.append("dependency ").append(dependency.getManagementKey()).append(':').append(dependency.getVersion()) //$NON-NLS-1$
+            .append('\n');
+      }
+      for(PluginExecution execution : plugin.getExecutions()) {
+        sb.append("execution ").append(execution.getId()).append(':').append(execution.getPhase()) //$NON-NLS-1$
+            .append(':').append(execution.getGoals()).append('\n');
+        sb.append(execution.getConfiguration()).append('\n');
+      }
+    }
+
+    return digest(sb.toString());
+  }
+
+  private static String digest(String str) {
+    try {
+      byte[] digest = MessageDigest.getInstance("SHA-1").digest(str.getBytes("UTF-8")); //$NON-NLS-1$ //$NON-NLS-2$
+      StringBuilder sb = new StringBuilder(digest.length * 2);
+      for(byte b : digest) {
+        sb.append(Character.forDigit((b >> 4) & 0x0f, 16)).append(Character.forDigit(b & 0x0f, 16));
+      }
+      return sb.toString();
+    } catch(NoSuchAlgorithmException ex) {
+      return str;
+    } catch(UnsupportedEncodingException ex) {
+      return str;
+    }
+  }
+}
@@ -11,6 +11,9 @@
 
 package org.eclipse.m2e.core.internal.project.registry;
 
+import org.apache.maven.artifact.versioning.ArtifactVersion;
+import org.apache.maven.artifact.versioning.DefaultArtifactVersion;
+
 import org.eclipse.m2e.core.embedder.ArtifactKey;
 
 
@@ -35,6 +38,8 @@ public class MavenCapability extends Capability {
 
   private final String version;
 
+  private transient ArtifactVersion artifactVersion;
+
   private MavenCapability(String namespace, String id, String version) {
     super(namespace, id);
     this.version = version;
@@ -44,6 +49,13 @@ public class MavenCapability extends Capability {
     return version;
   }
 
+  ArtifactVersion getArtifactVersion() {
+    if(artifactVersion == null) {
+      artifactVersion = new DefaultArtifactVersion(version);
+    }
+    return artifactVersion;
+  }
+
   public String toString() {
     return getVersionlessKey().toString() + "/" + version; //$NON-NLS-1$
   }
@@ -0,0 +1,189 @@
+/*******************************************************************************
+ * Copyright (c) 2008-2010 Sonatype, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *      Sonatype, Inc. - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.m2e.core.internal.project.registry;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+
+import org.apache.maven.project.MavenProject;
+
+import org.eclipse.m2e.core.core.IMavenConstants;
+
+
+/**
+ * Limits number of MavenProject instances kept by workspace project facades.
+ * <p>
+ * Facades of the registry are added to the cache once project change listeners have been notified, until then the
+ * facade keeps the MavenProject it was created with. Cached facades keep their MavenProject strongly reachable while
+ * they are among the most recently used ones. Projects of the least recently used facades are only softly reachable
+ * and are read again if the garbage collector clears them.
+ * <p>
+ * Concurrent requests for the MavenProject of the same facade are served by a single read, which is not performed
+ * while holding any facade or cache monitor.
+ *
+ * @author igor
+ */
+class MavenProjectCache {
+  private static final Logger log = LoggerFactory.getLogger(MavenProjectCache.class);
+
+  private final int maxSize;
+
+  /**
+   * Facades with strongly reachable MavenProject, in access order. Guarded by this.
+   */
+  private final Map<MavenProjectFacade, Boolean> facades = new LinkedHashMap<MavenProjectFacade, Boolean>(16, 0.75f,
+      true) {
+    private static final long serialVersionUID = -1935342658917485208L;
+
+    protected boolean removeEldestEntry(Map.Entry<MavenProjectFacade, Boolean> eldest) {
+      if(size() > maxSize) {
+        eldest.getKey().releaseMavenProject();
+        evictions++ ;
+        return true;
+      }
+      return false;
+    }
+  };
+
+  /**
+   * MavenProject reads in progress. Guarded by this.
+   */
+  private final Map<MavenProjectFacade, FutureTask<MavenProject>> loads = new HashMap<MavenProjectFacade, FutureTask<MavenProject>>();
+
+  // statistics, guarded by this
+
+  private long hits;
+
+  private long softHits;
+
+  private long misses;
+
+  private long waits;
+
+  private long evictions;
+
+  private long loadTime;
+
+  public MavenProjectCache(int maxSize) {
+    this.maxSize = Math.max(1, maxSize);
+  }
+
+  /**
+   * Makes MavenProject of the facade subject to eviction.
+   */
+  public synchronized void add(MavenProjectFacade facade) {
+    if(facade.getMavenProject() != null) {
+      facades.put(facade, Boolean.TRUE);
+    }
+  }
+
+  /**
+   * Removes the facade from the cache. MavenProject of the facade, if any, is not released.
+   */
+  public synchronized void remove(MavenProjectFacade facade) {
+    facades.remove(facade);
+  }
+
+  /**
+   * Returns MavenProject of the facade, reads the project if the facade does not have MavenProject or the project was
+   * evicted.
+   */
+  public MavenProject getMavenProject(final MavenProjectFacade facade, final IProgressMonitor monitor)
+      throws CoreException {
+    FutureTask<MavenProject> load;
+    boolean owner = false;
+    synchronized(this) {
+      MavenProject mavenProject = facade.getMavenProject();
+      if(mavenProject != null) {
+        if(facade.isMavenProjectReleased()) {
+          softHits++ ;
+          facade.setMavenProject(mavenProject);
+          facades.put(facade, Boolean.TRUE);
+        } else {
+          hits++ ;
+          facades.get(facade); // update access order, new facades are not in the cache yet
+        }
+        return mavenProject;
+      }
+      load = loads.get(facade);
+      if(load == null) {
+        load = new FutureTask<MavenProject>(new Callable<MavenProject>() {
+          public MavenProject call() throws CoreException {
+            return facade.readMavenProject(monitor);
+          }
+        });
+        loads.put(facade, load);
+        owner = true;
+        misses++ ;
+      } else {
+        waits++ ;
+      }
+    }
+
+    long start = System.currentTimeMillis();
+    if(owner) {
+      load.run();
+    }
+    try {
+      MavenProject mavenProject = load.get();
+      if(owner) {
+        synchronized(this) {
+          facade.setMavenProject(mavenProject);
+          facades.put(facade, Boolean.TRUE);
+          loads.remove(facade);
+          loadTime += System.currentTimeMillis() - start;
+        }
+        log.debug("Read MavenProject {} in {} ms, {}", new Object[] {facade.getPom(), //$NON-NLS-1$
+            System.currentTimeMillis() - start, this});
+      }
+      return mavenProject;
+    } catch(ExecutionException ex) {
+      if(owner) {
+        synchronized(this) {
+          loads.remove(facade);
+        }
+      }
+      Throwable cause = ex.getCause();
+      if(cause instanceof CoreException) {
+        throw (CoreException) cause;
+      }
+      if(cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      if(cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw new CoreException(new Status(IStatus.ERROR, IMavenConstants.PLUGIN_ID, -1, cause.getMessage(), cause));
+    } catch(InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new CoreException(new Status(IStatus.ERROR, IMavenConstants.PLUGIN_ID, -1, ex.getMessage(), ex));
+    }
+  }
+
+  public synchronized String toString() {
+    return "MavenProject cache: size " + facades.size() + "/" + maxSize + ", hits " + hits + ", soft hits " //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+        + softHits + ", misses " + misses + ", concurrent misses " + waits + ", evictions " + evictions //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        + ", load time " + loadTime + " ms"; //$NON-NLS-1$ //$NON-NLS-2$
+  }
+}
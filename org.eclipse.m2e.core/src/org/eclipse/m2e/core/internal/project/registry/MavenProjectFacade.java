@@ -13,6 +13,7 @@ package org.eclipse.m2e.core.internal.project.registry;
 
 import java.io.File;
 import java.io.Serializable;
+import java.lang.ref.SoftReference;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.LinkedHashSet;
@@ -29,6 +30,8 @@ import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.MultiStatus;
 import org.eclipse.core.runtime.Status;
 
+import org.codehaus.plexus.classworlds.realm.ClassRealm;
+
 import org.apache.maven.artifact.repository.ArtifactRepository;
 import org.apache.maven.execution.MavenExecutionResult;
 import org.apache.maven.execution.MavenSession;
@@ -64,10 +67,25 @@ public class MavenProjectFacade implements IMavenProjectFacade, Serializable {
 
   private final File pomFile;
 
-  private transient MavenProject mavenProject;
+  /**
+   * Strongly reachable MavenProject, see {@link MavenProjectCache}
+   */
+  private transient volatile MavenProject mavenProject;
 
   /**
-   * Maps LIFECYCLE_* to corresponding mojo executions
+   * MavenProject evicted by {@link MavenProjectCache}, null if the project was not evicted.
+   */
+  private transient volatile SoftReference<MavenProject> releasedMavenProject;
+
+  /**
+   * Build extensions class realm of the MavenProject, kept when the project is released so the realm can be disposed
+   * of after the project was garbage collected.
+   */
+  private transient volatile ClassRealm extensionsRealm;
+
+  /**
+   * Maps LIFECYCLE_* to corresponding mojo executions. Set by project refresh, null for facades read from the persisted
+   * workspace state until execution plans are requested for the first time.
    */
   private transient Map<String, List<MojoExecution>> executionPlans;
 
@@ -107,6 +125,7 @@ public class MavenProjectFacade implements IMavenProjectFacade, Serializable {
     this.resolverConfiguration = resolverConfiguration;
 
     this.mavenProject = mavenProject;
+    this.extensionsRealm = mavenProject.getClassRealm();
     this.executionPlans = executionPlans;
 
     this.artifactKey = new ArtifactKey(mavenProject.getArtifact());
@@ -196,27 +215,51 @@ public class MavenProjectFacade implements IMavenProjectFacade, Serializable {
   /**
    * Lazy load and cache MavenProject instance
    */
-  public synchronized MavenProject getMavenProject(IProgressMonitor monitor) throws CoreException {
+  public MavenProject getMavenProject(IProgressMonitor monitor) throws CoreException {
+    return manager.getMavenProjectCache().getMavenProject(this, monitor);
+  }
+
+  MavenProject readMavenProject(IProgressMonitor monitor) throws CoreException {
+    //this used to just pass in 'true' for 'offline'. when the local repo was removed or
+    //corrupted, though, the project wouldn't load correctly
+    IMavenConfiguration mavenConfiguration = MavenPlugin.getDefault().getMavenConfiguration();
+    boolean isOffline = mavenConfiguration.isOffline();
+    MavenExecutionResult result = manager.readProjectWithDependencies(pom, resolverConfiguration, //
+        new MavenUpdateRequest(isOffline, false /* updateSnapshots */), monitor);
+    MavenProject mavenProject = result.getProject();
     if (mavenProject == null) {
-      //this used to just pass in 'true' for 'offline'. when the local repo was removed or
-      //corrupted, though, the project wouldn't load correctly
-      IMavenConfiguration mavenConfiguration = MavenPlugin.getDefault().getMavenConfiguration();
-      boolean isOffline = mavenConfiguration.isOffline();
-      MavenExecutionResult result = manager.readProjectWithDependencies(pom, resolverConfiguration, //
-          new MavenUpdateRequest(isOffline, false /* updateSnapshots */), monitor);
-      mavenProject = result.getProject();
-      if (mavenProject == null) {
-        MultiStatus status = new MultiStatus(IMavenConstants.PLUGIN_ID, 0, Messages.MavenProjectFacade_error, null);
-        List<Throwable> exceptions = result.getExceptions();
-        for (Throwable e : exceptions) {
-          status.add(new Status(IStatus.ERROR, IMavenConstants.PLUGIN_ID, 0, e.getMessage(), e));
-        }
-        throw new CoreException(status);
+      MultiStatus status = new MultiStatus(IMavenConstants.PLUGIN_ID, 0, Messages.MavenProjectFacade_error, null);
+      List<Throwable> exceptions = result.getExceptions();
+      for (Throwable e : exceptions) {
+        status.add(new Status(IStatus.ERROR, IMavenConstants.PLUGIN_ID, 0, e.getMessage(), e));
       }
+      throw new CoreException(status);
     }
     return mavenProject;
   }
 
+  void setMavenProject(MavenProject mavenProject) {
+    this.mavenProject = mavenProject;
+    this.extensionsRealm = mavenProject.getClassRealm();
+    this.releasedMavenProject = null;
+  }
+
+  void releaseMavenProject() {
+    MavenProject mavenProject = this.mavenProject;
+    if(mavenProject != null) {
+      this.releasedMavenProject = new SoftReference<MavenProject>(mavenProject);
+      this.mavenProject = null;
+    }
+  }
+
+  ClassRealm getExtensionsRealm() {
+    return extensionsRealm;
+  }
+
+  boolean isMavenProjectReleased() {
+    return mavenProject == null && releasedMavenProject != null;
+  }
+
   public String getPackaging() {
     return packaging;
   }
@@ -303,6 +346,11 @@ public class MavenProjectFacade implements IMavenProjectFacade, Serializable {
   }
 
   public MavenProject getMavenProject() {
+    MavenProject mavenProject = this.mavenProject;
+    if(mavenProject == null) {
+      SoftReference<MavenProject> releasedMavenProject = this.releasedMavenProject;
+      mavenProject = releasedMavenProject != null ? releasedMavenProject.get() : null;
+    }
     return mavenProject;
   }
 
@@ -330,6 +378,7 @@ public class MavenProjectFacade implements IMavenProjectFacade, Serializable {
   }
 
   public String toString() {
+    MavenProject mavenProject = getMavenProject();
     if(mavenProject == null) {
       return "Maven Project: null";
     }
@@ -409,8 +458,8 @@ public class MavenProjectFacade implements IMavenProjectFacade, Serializable {
   /**
    * Returns cached list of MojoExecutions bound to project's clean, default and site lifecycles. Returned
    * MojoExecutions are not fully setup and {@link IMaven#setupMojoExecution(MavenSession, MavenProject, MojoExecution)}
-   * is required to execute and/or query mojo parameters. Similarly to {@link #getMavenProject()}, return value is null
-   * after workspace restart.
+   * is required to execute and/or query mojo parameters. Execution plans are calculated on demand, return value is null
+   * if they have not been calculated yet.
    */
   public List<MojoExecution> getMojoExecutions() {
     try {
@@ -444,6 +493,10 @@ public class MavenProjectFacade implements IMavenProjectFacade, Serializable {
     return executionPlans != null ? executionPlans.get(lifecycle) : null;
   }
 
+  synchronized void setExecutionPlans(Map<String, List<MojoExecution>> executionPlans) {
+    this.executionPlans = executionPlans;
+  }
+
   private synchronized Map<String, List<MojoExecution>> getExecutionPlans(IProgressMonitor monitor)
       throws CoreException {
     if(executionPlans == null) {
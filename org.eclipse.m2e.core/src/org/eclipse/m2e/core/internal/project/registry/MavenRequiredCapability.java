@@ -11,8 +11,6 @@
 
 package org.eclipse.m2e.core.internal.project.registry;
 
-import org.apache.maven.artifact.versioning.ArtifactVersion;
-import org.apache.maven.artifact.versioning.DefaultArtifactVersion;
 import org.apache.maven.artifact.versioning.InvalidVersionSpecificationException;
 import org.apache.maven.artifact.versioning.VersionRange;
 
@@ -29,6 +27,13 @@ public class MavenRequiredCapability extends RequiredCapability {
 
   private final boolean optional;
 
+  /**
+   * Parsed versionRange, null if not parsed yet or versionRange is not a valid version specification
+   */
+  private transient VersionRange range;
+
+  private transient boolean rangeParsed;
+
   private MavenRequiredCapability(String namespace, String id, String versionRange, String scope, boolean optional) {
     super(namespace, id);
 
@@ -53,18 +58,27 @@ public class MavenRequiredCapability extends RequiredCapability {
 
   public boolean isPotentialMatch(Capability capability) {
     if(capability instanceof MavenCapability && getVersionlessKey().equals(capability.getVersionlessKey())) {
-      try {
-        // TODO may need to cache parsed version and versionRange for performance reasons
-        ArtifactVersion version = new DefaultArtifactVersion(((MavenCapability) capability).getVersion());
-        VersionRange range = VersionRange.createFromVersionSpec(versionRange);
-        return range.containsVersion(version);
-      } catch(InvalidVersionSpecificationException ex) {
+      VersionRange range = getRange();
+      if(range == null) {
         return true; // better safe than sorry
       }
+      return range.containsVersion(((MavenCapability) capability).getArtifactVersion());
     }
     return false;
   }
 
+  private synchronized VersionRange getRange() {
+    if(!rangeParsed) {
+      try {
+        range = VersionRange.createFromVersionSpec(versionRange);
+      } catch(InvalidVersionSpecificationException ex) {
+        range = null;
+      }
+      rangeParsed = true;
+    }
+    return range;
+  }
+
   public String toString() {
     StringBuilder sb = new StringBuilder();
     sb.append(getVersionlessKey().toString());
@@ -11,11 +11,10 @@
 
 package org.eclipse.m2e.core.internal.project.registry;
 
+import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Iterator;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
@@ -42,9 +41,11 @@ public class MutableProjectRegistry extends BasicProjectRegistry implements IPro
   private boolean closed;
 
   public MutableProjectRegistry(ProjectRegistry state) {
-    super(state);
     this.parent = state;
-    this.parentVersion = state.getVersion();
+    synchronized(state) {
+      replaceWith(state);
+      this.parentVersion = state.getVersion();
+    }
   }
 
   private void assertNotClosed() {
@@ -155,18 +156,22 @@ public class MutableProjectRegistry extends BasicProjectRegistry implements IPro
       return Collections.emptySet();
     }
     Set<IFile> result = new LinkedHashSet<IFile>();
-    Iterator<Entry<RequiredCapability, Set<IFile>>> iter = rs.entrySet().iterator();
-    while(iter.hasNext()) {
-      Entry<RequiredCapability, Set<IFile>> entry = iter.next();
+    List<RequiredCapability> matched = new ArrayList<RequiredCapability>();
+    for(Entry<RequiredCapability, Set<IFile>> entry : rs.entrySet()) {
       if(entry.getKey().isPotentialMatch(capability)) {
         result.addAll(entry.getValue());
-        if(remove) {
-          iter.remove();
-        }
+        matched.add(entry.getKey());
       }
     }
-    if(remove && rs.isEmpty()) {
-      requiredCapabilities.remove(capability.getVersionlessKey());
+    if(remove && !matched.isEmpty()) {
+      if(matched.size() == rs.size()) {
+        requiredCapabilities.remove(capability.getVersionlessKey());
+      } else {
+        rs = getWritableRequirements(capability.getVersionlessKey(), false);
+        for(RequiredCapability requirement : matched) {
+          rs.remove(requirement);
+        }
+      }
     }
     return result;
   }
@@ -191,20 +196,6 @@ public class MutableProjectRegistry extends BasicProjectRegistry implements IPro
     return result;
   }
 
-  private void addRequiredCapability(IFile pom, RequiredCapability req) {
-    Map<RequiredCapability, Set<IFile>> keyEntry = requiredCapabilities.get(req.getVersionlessKey());
-    if(keyEntry == null) {
-      keyEntry = new HashMap<RequiredCapability, Set<IFile>>();
-      requiredCapabilities.put(req.getVersionlessKey(), keyEntry);
-    }
-    Set<IFile> poms = keyEntry.get(req);
-    if(poms == null) {
-      poms = new HashSet<IFile>();
-      keyEntry.put(req, poms);
-    }
-    poms.add(pom);
-  }
-
   public Set<Capability> setCapabilities(IFile pom, Set<Capability> capabilities) {
     return capabilities != null ? projectCapabilities.put(pom, capabilities) : projectCapabilities.remove(pom);
   }
@@ -221,23 +212,28 @@ public class MutableProjectRegistry extends BasicProjectRegistry implements IPro
   }
 
   private void removeRequiredCapabilities(IFile pom) {
-    // TODO likely too slow
-    Iterator<Entry<VersionlessKey, Map<RequiredCapability, Set<IFile>>>> keysIter = requiredCapabilities.entrySet()
-        .iterator();
-    while(keysIter.hasNext()) {
-      Entry<VersionlessKey, Map<RequiredCapability, Set<IFile>>> keysEntry = keysIter.next();
-      Iterator<Entry<RequiredCapability, Set<IFile>>> requirementsIter = keysEntry.getValue().entrySet().iterator();
-      while(requirementsIter.hasNext()) {
-        Entry<RequiredCapability, Set<IFile>> requirementsEntry = requirementsIter.next();
-        requirementsEntry.getValue().remove(pom);
-        if(requirementsEntry.getValue().isEmpty()) {
-          // was last project that required this capability
-          requirementsIter.remove();
-        }
+    // projectRequirements is the reverse index of requiredCapabilities, every requiredCapabilities entry that
+    // references the pom is listed among the pom's requirements (but not the other way around, entries can be
+    // removed by getDependents)
+    Set<RequiredCapability> requirements = projectRequirements.get(pom);
+    if(requirements == null) {
+      return;
+    }
+    for(RequiredCapability requirement : requirements) {
+      VersionlessKey key = requirement.getVersionlessKey();
+      Map<RequiredCapability, Set<IFile>> keyEntry = requiredCapabilities.get(key);
+      Set<IFile> poms = keyEntry != null ? keyEntry.get(requirement) : null;
+      if(poms == null || !poms.contains(pom)) {
+        continue;
       }
-      if(keysEntry.getValue().isEmpty()) {
+      if(poms.size() > 1) {
+        getWritablePoms(getWritableRequirements(key, false), requirement, false).remove(pom);
+      } else if(keyEntry.size() > 1) {
+        // was last project that required this capability
+        getWritableRequirements(key, false).remove(requirement);
+      } else {
         // was last project that required this capability versionless key
-        keysIter.remove();
+        requiredCapabilities.remove(key);
       }
     }
   }
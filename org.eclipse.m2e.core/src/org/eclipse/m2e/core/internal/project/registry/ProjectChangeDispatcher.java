@@ -0,0 +1,371 @@
+/*******************************************************************************
+ * Copyright (c) 2008-2010 Sonatype, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *      Sonatype, Inc. - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.m2e.core.internal.project.registry;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.runtime.IExtension;
+import org.eclipse.core.runtime.IExtensionPoint;
+import org.eclipse.core.runtime.IExtensionRegistry;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IRegistryEventListener;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.Platform;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.osgi.util.NLS;
+
+import org.eclipse.m2e.core.core.IMavenConstants;
+import org.eclipse.m2e.core.internal.ExtensionReader;
+import org.eclipse.m2e.core.internal.Messages;
+import org.eclipse.m2e.core.project.IMavenProjectChangedListener;
+import org.eclipse.m2e.core.project.MavenProjectChangedEvent;
+
+
+/**
+ * Delivers MavenProjectChangedEvent's to registered and contributed IMavenProjectChangedListener's.
+ * <p>
+ * Synchronous listeners are called from the thread that applied registry changes, i.e. while holding workspace root's
+ * lock. Asynchronous listeners are called from a background job, one job per listener, so a slow listener does not
+ * delay refresh or other listeners. Events are delivered to each asynchronous listener in order, events that arrive
+ * while the listener is busy are coalesced per project. Exceptions thrown by a listener are logged and do not affect
+ * other listeners.
+ * <p>
+ * Notification time is recorded per listener class, statistics are logged when the dispatcher is disposed if the
+ * <code>org.eclipse.m2e/debug/projectChangeListeners</code> debug option is enabled.
+ *
+ * @author igor
+ */
+class ProjectChangeDispatcher {
+  private static final Logger log = LoggerFactory.getLogger(ProjectChangeDispatcher.class);
+
+  private static final boolean DEBUG = Boolean.parseBoolean(Platform.getDebugOption(IMavenConstants.PLUGIN_ID
+      + "/debug/projectChangeListeners")); //$NON-NLS-1$
+
+  private final List<IMavenProjectChangedListener> listeners = new ArrayList<IMavenProjectChangedListener>();
+
+  private final Map<IMavenProjectChangedListener, AsyncListenerJob> asyncListeners = new LinkedHashMap<IMavenProjectChangedListener, AsyncListenerJob>();
+
+  /**
+   * Listeners contributed via extension point, null if extensions need to be read. Guarded by this.
+   */
+  private List<IMavenProjectChangedListener> extensionListeners;
+
+  private List<AsyncListenerJob> asyncExtensionListeners;
+
+  private boolean registryListenerAdded;
+
+  /**
+   * Set by {@link #dispose()}, events are dropped from then on. Guarded by this.
+   */
+  private boolean disposed;
+
+  private final Map<String, ListenerStats> stats = new HashMap<String, ListenerStats>();
+
+  public synchronized void addListener(IMavenProjectChangedListener listener, boolean async) {
+    if(disposed) {
+      return;
+    }
+    if(async) {
+      if(!asyncListeners.containsKey(listener)) {
+        asyncListeners.put(listener, new AsyncListenerJob(listener));
+      }
+    } else if(!listeners.contains(listener)) {
+      listeners.add(listener);
+    }
+  }
+
+  public synchronized void removeListener(IMavenProjectChangedListener listener) {
+    listeners.remove(listener);
+    AsyncListenerJob job = asyncListeners.remove(listener);
+    if(job != null) {
+      job.cancel();
+    }
+  }
+
+  public void notify(List<MavenProjectChangedEvent> events, IProgressMonitor monitor) {
+    if(events.isEmpty()) {
+      return;
+    }
+
+    List<IMavenProjectChangedListener> syncListeners = new ArrayList<IMavenProjectChangedListener>();
+    List<AsyncListenerJob> asyncJobs = new ArrayList<AsyncListenerJob>();
+    synchronized(this) {
+      if(disposed) {
+        return;
+      }
+      readExtensionListeners();
+      syncListeners.addAll(listeners);
+      syncListeners.addAll(extensionListeners);
+      asyncJobs.addAll(asyncListeners.values());
+      asyncJobs.addAll(asyncExtensionListeners);
+    }
+
+    for(AsyncListenerJob job : asyncJobs) {
+      job.add(events);
+    }
+
+    MavenProjectChangedEvent[] eventsArray = events.toArray(new MavenProjectChangedEvent[events.size()]);
+    for(IMavenProjectChangedListener listener : syncListeners) {
+      notify(listener, eventsArray, monitor);
+    }
+  }
+
+  void notify(IMavenProjectChangedListener listener, MavenProjectChangedEvent[] events, IProgressMonitor monitor) {
+    long start = System.currentTimeMillis();
+    try {
+      listener.mavenProjectChanged(events, monitor);
+    } catch(OperationCanceledException ex) {
+      throw ex;
+    } catch(RuntimeException ex) {
+      log.error("Project change listener " + listener.getClass().getName() + " failed", ex);
+    } finally {
+      long time = System.currentTimeMillis() - start;
+      getStats(listener).record(time);
+      log.debug("Notified {} of {} project changes in {} ms", new Object[] {listener.getClass().getName(),
+          events.length, time});
+    }
+  }
+
+  private synchronized ListenerStats getStats(IMavenProjectChangedListener listener) {
+    String name = listener.getClass().getName();
+    ListenerStats result = stats.get(name);
+    if(result == null) {
+      result = new ListenerStats();
+      stats.put(name, result);
+    }
+    return result;
+  }
+
+  /**
+   * Cancels background notification of asynchronous listeners and waits for running notifications to finish. Events
+   * not yet delivered to asynchronous listeners are discarded, as are events of later notifications.
+   */
+  public void dispose() {
+    List<AsyncListenerJob> asyncJobs = new ArrayList<AsyncListenerJob>();
+    synchronized(this) {
+      disposed = true;
+      asyncJobs.addAll(asyncListeners.values());
+      asyncListeners.clear();
+      if(asyncExtensionListeners != null) {
+        asyncJobs.addAll(asyncExtensionListeners);
+      }
+      extensionListeners = null;
+      asyncExtensionListeners = null;
+    }
+    for(AsyncListenerJob job : asyncJobs) {
+      job.cancel();
+    }
+    for(AsyncListenerJob job : asyncJobs) {
+      try {
+        job.join();
+      } catch(InterruptedException ex) {
+        Thread.currentThread().interrupt();
+        break;
+      }
+    }
+    if(DEBUG) {
+      for(Map.Entry<String, ListenerStats> entry : getListenerStats().entrySet()) {
+        log.info("Project change listener {}: {}", entry.getKey(), entry.getValue()); //$NON-NLS-1$
+      }
+    }
+  }
+
+  /**
+   * Returns notification statistics keyed by listener class name.
+   */
+  synchronized Map<String, ListenerStats> getListenerStats() {
+    Map<String, ListenerStats> result = new LinkedHashMap<String, ListenerStats>();
+    for(Map.Entry<String, ListenerStats> entry : stats.entrySet()) {
+      result.put(entry.getKey(), entry.getValue().copy());
+    }
+    return result;
+  }
+
+  private void readExtensionListeners() {
+    if(extensionListeners != null) {
+      return;
+    }
+    if(!registryListenerAdded) {
+      IExtensionRegistry registry = Platform.getExtensionRegistry();
+      if(registry != null) {
+        registry.addListener(new IRegistryEventListener() {
+          public void added(IExtension[] extensions) {
+            resetExtensionListeners();
+          }
+
+          public void removed(IExtension[] extensions) {
+            resetExtensionListeners();
+          }
+
+          public void added(IExtensionPoint[] extensionPoints) {
+          }
+
+          public void removed(IExtensionPoint[] extensionPoints) {
+          }
+        }, ExtensionReader.EXTENSION_PROJECT_CHANGED_EVENT_LISTENERS);
+      }
+      registryListenerAdded = true;
+    }
+    extensionListeners = ExtensionReader.readProjectChangedEventListenerExtentions(false);
+    asyncExtensionListeners = new ArrayList<AsyncListenerJob>();
+    for(IMavenProjectChangedListener listener : ExtensionReader.readProjectChangedEventListenerExtentions(true)) {
+      asyncExtensionListeners.add(new AsyncListenerJob(listener));
+    }
+  }
+
+  synchronized void resetExtensionListeners() {
+    if(asyncExtensionListeners != null) {
+      for(AsyncListenerJob job : asyncExtensionListeners) {
+        job.cancel();
+      }
+    }
+    extensionListeners = null;
+    asyncExtensionListeners = null;
+  }
+
+  /**
+   * Merges two consecutive events of the same project. Returns null if the events cancel each other out.
+   */
+  static MavenProjectChangedEvent merge(MavenProjectChangedEvent previous, MavenProjectChangedEvent event) {
+    int previousKind = previous.getKind();
+    int kind = event.getKind();
+
+    if(previousKind == MavenProjectChangedEvent.KIND_ADDED) {
+      if(kind == MavenProjectChangedEvent.KIND_REMOVED) {
+        return null;
+      }
+      // still a new project, as far as the listener is concerned
+      kind = MavenProjectChangedEvent.KIND_ADDED;
+    } else if(kind == MavenProjectChangedEvent.KIND_ADDED) {
+      // removed and added back
+      kind = MavenProjectChangedEvent.KIND_CHANGED;
+    }
+
+    // flags are not a bit mask, but listeners must learn about dependency changes of either event
+    int flags;
+    if(previous.getFlags() == MavenProjectChangedEvent.FLAG_DEPENDENCIES
+        || event.getFlags() == MavenProjectChangedEvent.FLAG_DEPENDENCIES) {
+      flags = MavenProjectChangedEvent.FLAG_DEPENDENCIES;
+    } else if(previous.getFlags() == event.getFlags()) {
+      flags = event.getFlags();
+    } else {
+      flags = MavenProjectChangedEvent.FLAG_NONE;
+    }
+
+    return new MavenProjectChangedEvent(event.getSource(), kind, flags, previous.getOldMavenProject(),
+        event.getMavenProject());
+  }
+
+  /**
+   * Notification statistics of a listener
+   */
+  static class ListenerStats {
+    private int count;
+
+    private long totalTime;
+
+    private long maxTime;
+
+    synchronized void record(long time) {
+      count++ ;
+      totalTime += time;
+      maxTime = Math.max(maxTime, time);
+    }
+
+    synchronized ListenerStats copy() {
+      ListenerStats copy = new ListenerStats();
+      copy.count = count;
+      copy.totalTime = totalTime;
+      copy.maxTime = maxTime;
+      return copy;
+    }
+
+    public int getCount() {
+      return count;
+    }
+
+    public long getTotalTime() {
+      return totalTime;
+    }
+
+    public long getMaxTime() {
+      return maxTime;
+    }
+
+    public String toString() {
+      return "count=" + count + " total=" + totalTime + "ms max=" + maxTime + "ms"; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+    }
+  }
+
+  /**
+   * Notifies one asynchronous listener. Jobs never run concurrently with themselves, which guarantees in-order
+   * delivery.
+   */
+  private class AsyncListenerJob extends Job {
+    private final IMavenProjectChangedListener listener;
+
+    /**
+     * Events not yet delivered to the listener, keyed by pom. Access is synchronized on the map itself.
+     */
+    private final Map<IFile, MavenProjectChangedEvent> pending = new LinkedHashMap<IFile, MavenProjectChangedEvent>();
+
+    AsyncListenerJob(IMavenProjectChangedListener listener) {
+      super(NLS.bind(Messages.ProjectChangeDispatcher_job_title, listener.getClass().getName()));
+      this.listener = listener;
+      setSystem(true);
+    }
+
+    void add(List<MavenProjectChangedEvent> events) {
+      synchronized(pending) {
+        for(MavenProjectChangedEvent event : events) {
+          MavenProjectChangedEvent previous = pending.remove(event.getSource());
+          MavenProjectChangedEvent merged = previous != null ? merge(previous, event) : event;
+          if(merged != null) {
+            pending.put(event.getSource(), merged);
+          }
+        }
+        if(pending.isEmpty()) {
+          return;
+        }
+      }
+      // if the job is running, it will run again when finished
+      schedule();
+    }
+
+    protected IStatus run(IProgressMonitor monitor) {
+      MavenProjectChangedEvent[] events;
+      synchronized(pending) {
+        if(pending.isEmpty()) {
+          return Status.OK_STATUS;
+        }
+        events = pending.values().toArray(new MavenProjectChangedEvent[pending.size()]);
+        pending.clear();
+      }
+      try {
+        ProjectChangeDispatcher.this.notify(listener, events, monitor);
+      } catch(OperationCanceledException ex) {
+        return Status.CANCEL_STATUS;
+      }
+      return Status.OK_STATUS;
+    }
+  }
+}
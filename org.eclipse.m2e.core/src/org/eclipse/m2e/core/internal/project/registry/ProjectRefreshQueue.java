@@ -0,0 +1,249 @@
+/*******************************************************************************
+ * Copyright (c) 2008-2010 Sonatype, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *      Sonatype, Inc. - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.m2e.core.internal.project.registry;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.core.resources.IFile;
+
+import org.eclipse.m2e.core.project.MavenUpdateRequest;
+
+
+/**
+ * Queue of pending background refresh requests.
+ * <p>
+ * Requests are merged by pom file. Merged request of a pom uses the strongest options of all requests of the pom,
+ * i.e. it is online if any of the requests is online, and updates snapshots and forces dependency resolution if any
+ * of the requests does. Refresh is delayed until no new requests were queued for {@link #QUIET_PERIOD}, but never
+ * more than {@link #MAX_DELAY} after the oldest pending request, so bursts of changes, like VCS branch switches,
+ * result in one refresh. Requests of priority poms, for example poms open in an editor, are processed first and with
+ * a shorter delay.
+ * <p>
+ * Every change to the queue gets a sequence number. Synchronous refreshes remove pending and in-progress requests
+ * that were queued before the refresh started and do not need stronger options, see
+ * {@link #removeCovered(MavenUpdateRequest, long)}, which also limits retries after
+ * {@link StaleMutableProjectRegistryException} to requests that were not refreshed by somebody else in the meantime.
+ * <p>
+ * This class is thread safe.
+ *
+ * @author igor
+ */
+class ProjectRefreshQueue {
+
+  static final long QUIET_PERIOD = 1000L;
+
+  static final long MAX_DELAY = 5000L;
+
+  static final long PRIORITY_DELAY = 100L;
+
+  private static class Entry {
+    final IFile pom;
+
+    boolean offline;
+
+    boolean updateSnapshots;
+
+    boolean force;
+
+    long sequence;
+
+    long firstQueued;
+
+    long lastQueued;
+
+    Entry(IFile pom, boolean offline, boolean updateSnapshots, boolean force) {
+      this.pom = pom;
+      this.offline = offline;
+      this.updateSnapshots = updateSnapshots;
+      this.force = force;
+    }
+
+    void merge(Entry other) {
+      offline = offline && other.offline;
+      updateSnapshots = updateSnapshots || other.updateSnapshots;
+      force = force || other.force;
+      sequence = Math.max(sequence, other.sequence);
+      firstQueued = Math.min(firstQueued, other.firstQueued);
+      lastQueued = Math.max(lastQueued, other.lastQueued);
+    }
+
+    boolean isCoveredBy(MavenUpdateRequest request, long sequence) {
+      return this.sequence <= sequence && (request.isForce() || !force)
+          && (request.isUpdateSnapshots() || !updateSnapshots) && (!request.isOffline() || offline);
+    }
+
+    String getOptionsKey() {
+      return offline + ":" + updateSnapshots + ":" + force; //$NON-NLS-1$ //$NON-NLS-2$
+    }
+  }
+
+  private final Map<IFile, Entry> pending = new LinkedHashMap<IFile, Entry>();
+
+  /**
+   * Requests taken by the background refresh that is currently running
+   */
+  private final Map<IFile, Entry> inProgress = new LinkedHashMap<IFile, Entry>();
+
+  private final Map<IFile, Integer> priorityPoms = new HashMap<IFile, Integer>();
+
+  private long sequence;
+
+  public synchronized void add(MavenUpdateRequest request) {
+    long now = System.currentTimeMillis();
+    for(IFile pom : request.getPomFiles()) {
+      Entry entry = new Entry(pom, request.isOffline(), request.isUpdateSnapshots(), request.isForce());
+      entry.sequence = ++sequence;
+      entry.firstQueued = now;
+      entry.lastQueued = now;
+      add(entry);
+    }
+  }
+
+  private void add(Entry entry) {
+    Entry existing = pending.get(entry.pom);
+    if(existing != null) {
+      existing.merge(entry);
+    } else {
+      pending.put(entry.pom, entry);
+    }
+  }
+
+  public synchronized boolean isEmpty() {
+    return pending.isEmpty() && inProgress.isEmpty();
+  }
+
+  /**
+   * Returns current sequence number, i.e. sequence number of the last queued request.
+   */
+  public synchronized long getSequence() {
+    return sequence;
+  }
+
+  /**
+   * Returns number of milliseconds until pending requests should be processed, or -1 if there are no pending
+   * requests.
+   */
+  public synchronized long getDelay(long now) {
+    if(pending.isEmpty()) {
+      return -1;
+    }
+    long firstQueued = Long.MAX_VALUE;
+    long lastQueued = 0;
+    long lastPriorityQueued = -1;
+    for(Entry entry : pending.values()) {
+      firstQueued = Math.min(firstQueued, entry.firstQueued);
+      lastQueued = Math.max(lastQueued, entry.lastQueued);
+      if(priorityPoms.containsKey(entry.pom)) {
+        lastPriorityQueued = Math.max(lastPriorityQueued, entry.lastQueued);
+      }
+    }
+    long due;
+    if(lastPriorityQueued >= 0) {
+      due = lastPriorityQueued + PRIORITY_DELAY;
+    } else {
+      due = Math.min(lastQueued + QUIET_PERIOD, firstQueued + MAX_DELAY);
+    }
+    return Math.max(0, due - now);
+  }
+
+  /**
+   * Takes pending requests for processing. If any priority poms are pending, only requests of priority poms are
+   * taken. Returned requests group poms with identical options. Taken requests are kept until {@link #done()} or
+   * {@link #retry()} is called.
+   */
+  public synchronized List<MavenUpdateRequest> take() {
+    List<Entry> entries = new ArrayList<Entry>();
+    for(Entry entry : pending.values()) {
+      if(priorityPoms.containsKey(entry.pom)) {
+        entries.add(entry);
+      }
+    }
+    if(entries.isEmpty()) {
+      entries.addAll(pending.values());
+    }
+
+    Map<String, MavenUpdateRequest> requests = new LinkedHashMap<String, MavenUpdateRequest>();
+    for(Entry entry : entries) {
+      pending.remove(entry.pom);
+      inProgress.put(entry.pom, entry);
+
+      String key = entry.getOptionsKey();
+      MavenUpdateRequest request = requests.get(key);
+      if(request == null) {
+        request = new MavenUpdateRequest(entry.offline, entry.updateSnapshots);
+        request.setForce(entry.force);
+        requests.put(key, request);
+      }
+      request.addPomFile(entry.pom);
+    }
+    return new ArrayList<MavenUpdateRequest>(requests.values());
+  }
+
+  /**
+   * Forgets requests taken by the last {@link #take()}.
+   */
+  public synchronized void done() {
+    inProgress.clear();
+  }
+
+  /**
+   * Returns requests taken by the last {@link #take()} back to the queue.
+   */
+  public synchronized void retry() {
+    // requests taken earlier go before requests queued since
+    Map<IFile, Entry> queued = new LinkedHashMap<IFile, Entry>(pending);
+    pending.clear();
+    pending.putAll(inProgress);
+    inProgress.clear();
+    for(Entry entry : queued.values()) {
+      add(entry);
+    }
+  }
+
+  /**
+   * Removes pending and in-progress requests refreshed by the given successfully applied request. Only requests
+   * queued before or at the given sequence number and not requiring stronger options are removed.
+   */
+  public synchronized void removeCovered(MavenUpdateRequest request, long sequence) {
+    for(IFile pom : request.getPomFiles()) {
+      Entry entry = pending.get(pom);
+      if(entry != null && entry.isCoveredBy(request, sequence)) {
+        pending.remove(pom);
+      }
+      entry = inProgress.get(pom);
+      if(entry != null && entry.isCoveredBy(request, sequence)) {
+        inProgress.remove(pom);
+      }
+    }
+  }
+
+  public synchronized void addPriorityPom(IFile pom) {
+    Integer count = priorityPoms.get(pom);
+    priorityPoms.put(pom, Integer.valueOf(count != null ? count.intValue() + 1 : 1));
+  }
+
+  public synchronized void removePriorityPom(IFile pom) {
+    Integer count = priorityPoms.get(pom);
+    if(count == null) {
+      return;
+    }
+    if(count.intValue() > 1) {
+      priorityPoms.put(pom, Integer.valueOf(count.intValue() - 1));
+    } else {
+      priorityPoms.remove(pom);
+    }
+  }
+}
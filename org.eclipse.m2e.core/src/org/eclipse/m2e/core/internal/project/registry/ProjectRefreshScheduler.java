@@ -0,0 +1,244 @@
+/*******************************************************************************
+ * Copyright (c) 2008-2010 Sonatype, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *      Sonatype, Inc. - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.m2e.core.internal.project.registry;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.model.Dependency;
+import org.apache.maven.model.Plugin;
+import org.apache.maven.project.MavenProject;
+
+
+/**
+ * Runs per-project work of the second refresh phase. Projects are grouped into topologically ordered waves based on
+ * parent, dependency and build extension relationships between projects being refreshed, and projects of the same
+ * wave are processed concurrently on a bounded thread pool. With one thread, projects are processed one at a time in
+ * the order they were given.
+ * <p>
+ * Tasks must not modify the project registry or the workspace, the caller holds the refresh scheduling rule while
+ * waiting for the tasks. Registry, marker and other workspace changes are expected to be applied by the caller after
+ * {@link #execute(Collection, ProjectTask, IProgressMonitor)} returns.
+ *
+ * @author igor
+ */
+class ProjectRefreshScheduler {
+  private static final Logger log = LoggerFactory.getLogger(ProjectRefreshScheduler.class);
+
+  static interface ProjectTask {
+    /**
+     * Called from the refresh thread before each project (or wave of projects) is scheduled. Expected to throw
+     * {@link StaleMutableProjectRegistryException} if the refresh should be aborted.
+     */
+    public void checkState();
+
+    public void run(MavenProjectFacade facade, IProgressMonitor monitor) throws CoreException;
+  }
+
+  private final int threads;
+
+  ProjectRefreshScheduler(int threads) {
+    this.threads = Math.max(1, threads);
+  }
+
+  public int getThreads() {
+    return threads;
+  }
+
+  public void execute(Collection<MavenProjectFacade> facades, ProjectTask task, IProgressMonitor monitor)
+      throws CoreException {
+    if(threads <= 1 || facades.size() <= 1) {
+      for(MavenProjectFacade facade : facades) {
+        if(monitor.isCanceled()) {
+          throw new OperationCanceledException();
+        }
+        task.checkState();
+        task.run(facade, monitor);
+      }
+      return;
+    }
+
+    long start = System.currentTimeMillis();
+    List<List<MavenProjectFacade>> waves = getWaves(facades);
+
+    ExecutorService executor = Executors.newFixedThreadPool(threads, new RefreshThreadFactory());
+    try {
+      for(List<MavenProjectFacade> wave : waves) {
+        if(monitor.isCanceled()) {
+          throw new OperationCanceledException();
+        }
+        task.checkState();
+        executeWave(executor, wave, task, monitor);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    log.debug("Resolved {} projects in {} waves in {} ms", new Object[] {facades.size(), waves.size(),
+        System.currentTimeMillis() - start});
+  }
+
+  private void executeWave(ExecutorService executor, List<MavenProjectFacade> wave, final ProjectTask task,
+      final IProgressMonitor monitor) throws CoreException {
+    List<Future<Object>> futures = new ArrayList<Future<Object>>(wave.size());
+    for(final MavenProjectFacade facade : wave) {
+      futures.add(executor.submit(new Callable<Object>() {
+        public Object call() throws Exception {
+          task.run(facade, new WorkerProgressMonitor(monitor));
+          return null;
+        }
+      }));
+    }
+
+    try {
+      for(Future<Object> future : futures) {
+        try {
+          future.get();
+        } catch(InterruptedException ex) {
+          Thread.currentThread().interrupt();
+          throw new OperationCanceledException();
+        } catch(ExecutionException ex) {
+          Throwable cause = ex.getCause();
+          if(cause instanceof CoreException) {
+            throw (CoreException) cause;
+          } else if(cause instanceof RuntimeException) {
+            throw (RuntimeException) cause;
+          } else if(cause instanceof Error) {
+            throw (Error) cause;
+          }
+          throw new IllegalStateException(cause);
+        }
+      }
+    } finally {
+      for(Future<Object> future : futures) {
+        future.cancel(true);
+      }
+    }
+  }
+
+  /**
+   * Groups projects into waves such that each project only depends on projects from earlier waves. Projects that
+   * participate in dependency cycles are placed in the last wave. Order of projects within each wave matches the
+   * order of the original collection.
+   */
+  static List<List<MavenProjectFacade>> getWaves(Collection<MavenProjectFacade> facades) {
+    Map<String, MavenProjectFacade> byKey = new HashMap<String, MavenProjectFacade>();
+    for(MavenProjectFacade facade : facades) {
+      byKey.put(getKey(facade.getArtifactKey().getGroupId(), facade.getArtifactKey().getArtifactId()), facade);
+    }
+
+    Map<MavenProjectFacade, Set<MavenProjectFacade>> requirements = new LinkedHashMap<MavenProjectFacade, Set<MavenProjectFacade>>();
+    for(MavenProjectFacade facade : facades) {
+      Set<MavenProjectFacade> required = new LinkedHashSet<MavenProjectFacade>();
+      for(String key : getRequiredKeys(facade.getMavenProject())) {
+        MavenProjectFacade other = byKey.get(key);
+        if(other != null && other != facade) {
+          required.add(other);
+        }
+      }
+      requirements.put(facade, required);
+    }
+
+    List<List<MavenProjectFacade>> waves = new ArrayList<List<MavenProjectFacade>>();
+    while(!requirements.isEmpty()) {
+      List<MavenProjectFacade> wave = new ArrayList<MavenProjectFacade>();
+      for(Map.Entry<MavenProjectFacade, Set<MavenProjectFacade>> entry : requirements.entrySet()) {
+        if(entry.getValue().isEmpty()) {
+          wave.add(entry.getKey());
+        }
+      }
+      if(wave.isEmpty()) {
+        // dependency cycle, nothing better to do
+        wave.addAll(requirements.keySet());
+      }
+      for(MavenProjectFacade facade : wave) {
+        requirements.remove(facade);
+      }
+      for(Set<MavenProjectFacade> required : requirements.values()) {
+        required.removeAll(wave);
+      }
+      waves.add(wave);
+    }
+    return waves;
+  }
+
+  private static Set<String> getRequiredKeys(MavenProject mavenProject) {
+    Set<String> keys = new LinkedHashSet<String>();
+    if(mavenProject == null) {
+      return keys;
+    }
+    Artifact parentArtifact = mavenProject.getParentArtifact();
+    if(parentArtifact != null) {
+      keys.add(getKey(parentArtifact.getGroupId(), parentArtifact.getArtifactId()));
+    }
+    for(Dependency dependency : mavenProject.getDependencies()) {
+      keys.add(getKey(dependency.getGroupId(), dependency.getArtifactId()));
+    }
+    for(Plugin plugin : mavenProject.getBuildPlugins()) {
+      if(plugin.isExtensions()) {
+        keys.add(getKey(plugin.getGroupId(), plugin.getArtifactId()));
+      }
+    }
+    return keys;
+  }
+
+  private static String getKey(String groupId, String artifactId) {
+    return groupId + ":" + artifactId; //$NON-NLS-1$
+  }
+
+  /**
+   * Progress monitors are not thread safe, worker threads only get to see cancellation of the refresh monitor.
+   */
+  private static class WorkerProgressMonitor extends NullProgressMonitor {
+    private final IProgressMonitor parent;
+
+    WorkerProgressMonitor(IProgressMonitor parent) {
+      this.parent = parent;
+    }
+
+    public boolean isCanceled() {
+      return super.isCanceled() || parent.isCanceled();
+    }
+  }
+
+  private static class RefreshThreadFactory implements ThreadFactory {
+    private static final AtomicInteger count = new AtomicInteger();
+
+    public Thread newThread(Runnable runnable) {
+      Thread thread = new Thread(runnable, "M2E project refresh " + count.incrementAndGet()); //$NON-NLS-1$
+      thread.setDaemon(true);
+      return thread;
+    }
+  }
+}
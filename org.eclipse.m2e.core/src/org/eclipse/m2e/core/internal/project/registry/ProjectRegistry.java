@@ -13,6 +13,7 @@ package org.eclipse.m2e.core.internal.project.registry;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
@@ -35,6 +36,11 @@ public class ProjectRegistry extends BasicProjectRegistry implements Serializabl
 
   private transient int version;
 
+  /**
+   * Poms with changed facade, capabilities or requirements that have not been persisted yet.
+   */
+  private transient Set<IFile> changedPoms;
+
   public synchronized MavenProjectFacade getProjectFacade(IFile pom) {
     return super.getProjectFacade(pom);
   }
@@ -59,9 +65,13 @@ public class ProjectRegistry extends BasicProjectRegistry implements Serializabl
 
     ArrayList<MavenProjectChangedEvent> events = new ArrayList<MavenProjectChangedEvent>();
 
+    // only poms from segments not shared with newState can differ
+    Set<IFile> poms = workspacePoms.getChangedKeys(newState.workspacePoms);
+
     // removed projects
-    for(MavenProjectFacade facade : workspacePoms.values()) {
-      if(!newState.workspacePoms.containsKey(facade.getPom())) {
+    for(IFile pom : poms) {
+      MavenProjectFacade facade = workspacePoms.get(pom);
+      if(facade != null && !newState.workspacePoms.containsKey(pom)) {
         MavenProjectChangedEvent event = new MavenProjectChangedEvent( //
             facade.getPom(), //
             MavenProjectChangedEvent.KIND_REMOVED, //
@@ -73,9 +83,10 @@ public class ProjectRegistry extends BasicProjectRegistry implements Serializabl
     }
 
     // changed and new projects
-    for(MavenProjectFacade facade : newState.workspacePoms.values()) {
-      MavenProjectFacade old = workspacePoms.get(facade.getPom());
-      if(facade != old) { // not the same instance!
+    for(IFile pom : poms) {
+      MavenProjectFacade facade = newState.workspacePoms.get(pom);
+      MavenProjectFacade old = workspacePoms.get(pom);
+      if(facade != null && facade != old) { // not the same instance!
         MavenProjectChangedEvent event;
         if(old != null) {
           int flags = hasDependencyChange(old.getPom(), newState) ? MavenProjectChangedEvent.FLAG_DEPENDENCIES
@@ -97,6 +108,8 @@ public class ProjectRegistry extends BasicProjectRegistry implements Serializabl
       }
     }
 
+    collectChangedPoms(newState);
+
     replaceWith(newState);
 
     version++ ;
@@ -108,6 +121,36 @@ public class ProjectRegistry extends BasicProjectRegistry implements Serializabl
     return version;
   }
 
+  private void collectChangedPoms(MutableProjectRegistry newState) {
+    if(changedPoms == null) {
+      changedPoms = new HashSet<IFile>();
+    }
+    Set<IFile> poms = workspacePoms.getChangedKeys(newState.workspacePoms);
+    poms.addAll(projectCapabilities.getChangedKeys(newState.projectCapabilities));
+    poms.addAll(projectRequirements.getChangedKeys(newState.projectRequirements));
+    for(IFile pom : poms) {
+      if(workspacePoms.get(pom) != newState.workspacePoms.get(pom)
+          || !equals(getProjectCapabilities(pom), newState.getProjectCapabilities(pom))
+          || !equals(getProjectRequirements(pom), newState.getProjectRequirements(pom))) {
+        changedPoms.add(pom);
+      }
+    }
+  }
+
+  private static boolean equals(Set<?> a, Set<?> b) {
+    return a != null ? a.equals(b) : b == null;
+  }
+
+  /**
+   * Returns and forgets poms changed since last invocation of this method. Must be called while holding this
+   * registry's lock.
+   */
+  Set<IFile> takeChangedPoms() {
+    Set<IFile> result = changedPoms != null ? changedPoms : new HashSet<IFile>();
+    changedPoms = null;
+    return result;
+  }
+
   private boolean hasDependencyChange(IFile pom, MutableProjectRegistry newState) {
     Set<RequiredCapability> oldRequirements = getProjectRequirements(pom);
     Set<RequiredCapability> requirements = newState.getProjectRequirements(pom);
@@ -14,7 +14,9 @@ package org.eclipse.m2e.core.internal.project.registry;
 import java.io.File;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
@@ -45,6 +47,7 @@ import org.eclipse.core.runtime.preferences.IEclipsePreferences;
 import org.eclipse.core.runtime.preferences.IScopeContext;
 import org.eclipse.osgi.util.NLS;
 
+import org.codehaus.plexus.classworlds.realm.ClassRealm;
 import org.codehaus.plexus.component.repository.exception.ComponentLookupException;
 
 import org.apache.maven.artifact.repository.MavenArtifactRepository;
@@ -67,7 +70,6 @@ import org.eclipse.m2e.core.core.IMavenConstants;
 import org.eclipse.m2e.core.embedder.ArtifactKey;
 import org.eclipse.m2e.core.embedder.IMaven;
 import org.eclipse.m2e.core.embedder.IMavenConfiguration;
-import org.eclipse.m2e.core.internal.ExtensionReader;
 import org.eclipse.m2e.core.internal.Messages;
 import org.eclipse.m2e.core.internal.embedder.MavenImpl;
 import org.eclipse.m2e.core.internal.lifecyclemapping.LifecycleMappingFactory;
@@ -101,6 +103,18 @@ public class ProjectRegistryManager {
 
   private static final String VERSION = "1"; //$NON-NLS-1$
 
+  /**
+   * System property that controls number of threads used to resolve project dependencies during registry refresh.
+   * Defaults to the number of available processors.
+   */
+  public static final String P_REFRESH_THREADS = "m2e.refresh.threads"; //$NON-NLS-1$
+
+  /**
+   * System property that controls number of workspace projects that keep their MavenProject instance strongly
+   * reachable, see {@link MavenProjectCache}.
+   */
+  public static final String P_PROJECT_CACHE_SIZE = "m2e.projectCache.size"; //$NON-NLS-1$
+
   public static final String LIFECYCLE_DEFAULT = "deploy";
   public static final String LIFECYCLE_CLEAN = "clean";
   public static final String LIFECYCLE_SITE = "site";
@@ -126,10 +140,20 @@ public class ProjectRegistryManager {
 
   private final ProjectRegistryReader stateReader;
 
-  private final Set<IMavenProjectChangedListener> projectChangeListeners = new LinkedHashSet<IMavenProjectChangedListener>();
+  private final ProjectChangeDispatcher projectChangeDispatcher = new ProjectChangeDispatcher();
 
   private volatile Thread syncRefreshThread;
 
+  private final ProjectRefreshScheduler refreshScheduler = new ProjectRefreshScheduler(Integer.getInteger(
+      P_REFRESH_THREADS, Runtime.getRuntime().availableProcessors()).intValue());
+
+  private final ExecutionPlanCache executionPlanCache = new ExecutionPlanCache();
+
+  private final ProjectRefreshQueue refreshQueue = new ProjectRefreshQueue();
+
+  private final MavenProjectCache mavenProjectCache = new MavenProjectCache(Integer.getInteger(P_PROJECT_CACHE_SIZE,
+      100).intValue());
+
   public ProjectRegistryManager(MavenImpl maven, File stateLocationDir, boolean readState,
       IMavenMarkerManager mavenMarkerManager) {
     this.markerManager = mavenMarkerManager;
@@ -248,10 +272,21 @@ public class ProjectRegistryManager {
    */
   public Set<IFile> remove(MutableProjectRegistry state, Set<IFile> poms, boolean force) {
     Set<IFile> pomSet = new LinkedHashSet<IFile>();
+    Set<IMavenProjectFacade> staleFacades = null;
+    if(!force) {
+      List<MavenProjectFacade> facades = new ArrayList<MavenProjectFacade>();
+      for(IFile pom : poms) {
+        MavenProjectFacade facade = state.getProjectFacade(pom);
+        if(facade != null) {
+          facades.add(facade);
+        }
+      }
+      staleFacades = new HashSet<IMavenProjectFacade>(getStaleFacades(facades));
+    }
     for (Iterator<IFile> it = poms.iterator(); it.hasNext(); ) {
       IFile pom = it.next();
       MavenProjectFacade facade = state.getProjectFacade(pom);
-      if (force || facade == null || facade.isStale()) {
+      if (force || facade == null || staleFacades.contains(facade)) {
         pomSet.addAll(remove(state, pom));
       }
     }
@@ -291,11 +326,13 @@ public class ProjectRegistryManager {
 
   private void flushCaches(IFile pom, MavenProjectFacade facade) {
     ArtifactKey key = null;
-    MavenProject project = null;
+    ClassRealm extensionsRealm = null;
     
     if (facade != null) {
       key = facade.getArtifactKey();
-      project = facade.getMavenProject();
+      // MavenProject may have been evicted and collected, the realm is still registered with the class world
+      extensionsRealm = facade.getExtensionsRealm();
+      mavenProjectCache.remove(facade);
     }
     try {
       IManagedCache cache = (IManagedCache) maven.getPlexusContainer().lookup(MavenMetadataCache.class);
@@ -305,8 +342,8 @@ public class ProjectRegistryManager {
     } catch(CoreException ex) {
       // can't really happen
     }
-    if (project != null) {
-      getMaven().xxxRemoveExtensionsRealm(project);
+    if (extensionsRealm != null) {
+      maven.xxxRemoveExtensionsRealm(extensionsRealm);
     }
   }
 
@@ -321,11 +358,15 @@ public class ProjectRegistryManager {
     try {
       syncRefreshThread = Thread.currentThread();
 
+      long sequence = refreshQueue.getSequence();
       MutableProjectRegistry newState = newMutableProjectRegistry();
       try {
         refresh(newState, request, progress.newChild(95));
   
         applyMutableProjectRegistry(newState, progress.newChild(5));
+
+        // no need to refresh the same poms again in background
+        refreshQueue.removeCovered(request, sequence);
       } finally {
         newState.close();
       }
@@ -338,16 +379,25 @@ public class ProjectRegistryManager {
   void refresh(MutableProjectRegistry newState, MavenUpdateRequest updateRequest, IProgressMonitor monitor) throws CoreException {
     log.debug("Refreshing: {}", updateRequest.toString()); //$NON-NLS-1$
 
-    MavenExecutionRequest executionRequest = getMaven().createExecutionRequest(monitor);
+    // plugins may have changed since execution plans were calculated
+    executionPlanCache.clear();
 
-    DependencyResolutionContext context = new DependencyResolutionContext(updateRequest, executionRequest);
-  
-    refresh(newState, context, monitor);
+    // share repository caches among all maven sessions created during the refresh
+    maven.openSessionScope();
+    try {
+      MavenExecutionRequest executionRequest = getMaven().createExecutionRequest(monitor);
+
+      DependencyResolutionContext context = new DependencyResolutionContext(updateRequest, executionRequest);
+
+      refresh(newState, context, monitor);
+    } finally {
+      maven.closeSessionScope();
+    }
     log.debug("Refreshed: {}", updateRequest.toString()); //$NON-NLS-1$
   }
 
-  private void refresh(MutableProjectRegistry newState, DependencyResolutionContext context, IProgressMonitor monitor)
-      throws CoreException {
+  private void refresh(final MutableProjectRegistry newState, final DependencyResolutionContext context,
+      IProgressMonitor monitor) throws CoreException {
     while(!context.isEmpty()) {
       Map<IFile, MavenProjectFacade> newFacades = new LinkedHashMap<IFile, MavenProjectFacade>();
 
@@ -357,9 +407,7 @@ public class ProjectRegistryManager {
           throw new OperationCanceledException();
         }
 
-        if(newState.isStale() || (syncRefreshThread != null && syncRefreshThread != Thread.currentThread())) {
-          throw new StaleMutableProjectRegistryException();
-        }
+        checkStale(newState);
 
         IFile pom = context.pop();
 
@@ -387,50 +435,56 @@ public class ProjectRegistryManager {
       }
 
       // phase 2: resolve project dependencies
-      for(Map.Entry<IFile, MavenProjectFacade> entry : newFacades.entrySet()) {
+      final Map<IFile, ProjectResolution> resolutions = Collections
+          .synchronizedMap(new HashMap<IFile, ProjectResolution>());
+      List<MavenProjectFacade> resolveFacades = new ArrayList<MavenProjectFacade>();
+      for(MavenProjectFacade newFacade : newFacades.values()) {
+        if(newFacade != null) {
+          resolveFacades.add(newFacade);
+        }
+      }
+      refreshScheduler.execute(resolveFacades, new ProjectRefreshScheduler.ProjectTask() {
+        public void checkState() {
+          checkStale(newState);
+        }
+
+        public void run(MavenProjectFacade newFacade, IProgressMonitor monitor) throws CoreException {
+          resolutions.put(newFacade.getPom(), resolveProjectDependencies(newState, context, newFacade, monitor));
+        }
+      }, monitor);
+
+      // apply lifecycle mappings and markers, and finish dependency resolution that can't run concurrently
+      for(MavenProjectFacade newFacade : resolveFacades) {
         if(monitor.isCanceled()) {
           throw new OperationCanceledException();
         }
 
-        if(newState.isStale() || (syncRefreshThread != null && syncRefreshThread != Thread.currentThread())) {
-          throw new StaleMutableProjectRegistryException();
+        checkStale(newState);
+
+        applyProjectResolution(newState, context, newFacade, resolutions.get(newFacade.getPom()), monitor);
+      }
+
+      // phase 3: update capabilities and requirements in the order projects were read
+      for(Map.Entry<IFile, MavenProjectFacade> entry : newFacades.entrySet()) {
+        if(monitor.isCanceled()) {
+          throw new OperationCanceledException();
         }
 
+        checkStale(newState);
+
         IFile pom = entry.getKey();
         MavenProjectFacade newFacade = entry.getValue();
 
         Set<Capability> capabilities = null;
         Set<RequiredCapability> requirements = null;
         if(newFacade != null) {
-          monitor.subTask(NLS.bind(Messages.ProjectRegistryManager_task_project,newFacade.getProject().getName()));
-
-          setupLifecycleMapping(newState, context, monitor, newFacade);
-
-          capabilities = new LinkedHashSet<Capability>();
-          requirements = new LinkedHashSet<RequiredCapability>();
-
-          Capability mavenParentCapability = MavenCapability.createMavenParent(newFacade.getArtifactKey());
-
-          // maven projects always have these capabilities
-          capabilities.add(MavenCapability.createMaven(newFacade.getArtifactKey()));
-          capabilities.add(mavenParentCapability); // TODO consider packaging
-
-          AbstractMavenDependencyResolver resolver = getMavenDependencyResolver(newFacade, monitor);
-          resolver.setContextProjectRegistry(newState);
-          try {
-            MavenExecutionRequest mavenRequest = getConfiguredExecutionRequest(context, newState, newFacade.getPom(),
-                newFacade.getResolverConfiguration());
-            mavenRequest.getProjectBuildingRequest().setProject(newFacade.getMavenProject());
-            mavenRequest.getProjectBuildingRequest().setResolveDependencies(true);
-            resolver.resolveProjectDependencies(newFacade, mavenRequest, capabilities, requirements, monitor);
-          } finally {
-            resolver.setContextProjectRegistry(null);
-          }
-
-          newFacade.setMavenProjectArtifacts();
+          ProjectResolution resolution = resolutions.get(pom);
+          capabilities = resolution.capabilities;
+          requirements = resolution.requirements;
 
           // always refresh child modules
-          context.forcePomFiles(newState.getDependents(mavenParentCapability, true));
+          context.forcePomFiles(newState.getDependents(MavenCapability.createMavenParent(newFacade.getArtifactKey()),
+              true));
         } else {
           if(pom.isAccessible() && pom.getProject().hasNature(IMavenConstants.NATURE_ID)) {
             try {
@@ -473,13 +527,85 @@ public class ProjectRegistryManager {
     }
   }
 
-  private void setupLifecycleMapping(MutableProjectRegistry newState, DependencyResolutionContext context,
-      IProgressMonitor monitor, MavenProjectFacade newFacade) throws CoreException {
+  private void checkStale(MutableProjectRegistry newState) {
+    if(newState.isStale() || (syncRefreshThread != null && syncRefreshThread != Thread.currentThread())) {
+      throw new StaleMutableProjectRegistryException();
+    }
+  }
+
+  /**
+   * Lifecycle mapping, capabilities and requirements of a project calculated by a refresh worker thread. Results are
+   * applied to the project facade and the workspace by the refresh thread, see
+   * {@link ProjectRegistryManager#applyProjectResolution}.
+   */
+  static class ProjectResolution {
+    final Set<Capability> capabilities = new LinkedHashSet<Capability>();
+
+    final Set<RequiredCapability> requirements = new LinkedHashSet<RequiredCapability>();
+
+    LifecycleMappingResult mappingResult;
+
+    /**
+     * Resolver that calculated project requirements, or null if requirements must be calculated by the refresh thread.
+     */
+    DefaultMavenDependencyResolver resolver;
+
+    MavenExecutionResult dependencyResult;
+
+    /**
+     * Execution plan calculation errors, reported as pom loading markers by the refresh thread.
+     */
+    final List<CoreException> executionPlanErrors = new ArrayList<CoreException>();
+  }
+
+  /**
+   * Calculates execution plans, lifecycle mapping, capabilities and requirements of the project. Does not modify the
+   * registry or the workspace and can be called concurrently for different projects, see
+   * {@link ProjectRefreshScheduler}. Projects whose lifecycle mapping provides its own dependency resolver are
+   * resolved later by the refresh thread, as these resolvers are shared by all projects of the mapping.
+   */
+  ProjectResolution resolveProjectDependencies(MutableProjectRegistry newState, DependencyResolutionContext context,
+      MavenProjectFacade newFacade, IProgressMonitor monitor) throws CoreException {
+    monitor.subTask(NLS.bind(Messages.ProjectRegistryManager_task_project, newFacade.getProject().getName()));
+
+    ProjectResolution resolution = new ProjectResolution();
+
+    // execution plans are calculated against the refreshed state, lifecycle mapping needs them
+    newFacade.setExecutionPlans(calculateExecutionPlans(context, newState, newFacade.getPom(),
+        newFacade.getMavenProject(), newFacade.getResolverConfiguration(), resolution.executionPlanErrors, monitor));
+
     MavenExecutionRequest mavenRequest = getConfiguredExecutionRequest(context, newState, newFacade.getPom(),
         newFacade.getResolverConfiguration());
+    resolution.mappingResult = LifecycleMappingFactory.calculateLifecycleMapping(mavenRequest, newFacade, monitor);
+
+    // maven projects always have these capabilities
+    resolution.capabilities.add(MavenCapability.createMaven(newFacade.getArtifactKey()));
+    resolution.capabilities.add(MavenCapability.createMavenParent(newFacade.getArtifactKey())); // TODO consider packaging
 
-    LifecycleMappingResult mappingResult = LifecycleMappingFactory.calculateLifecycleMapping(mavenRequest, newFacade,
-        monitor);
+    ILifecycleMapping lifecycleMapping = resolution.mappingResult.getLifecycleMapping();
+    if(lifecycleMapping == null || lifecycleMapping instanceof ILifecycleMapping2) {
+      return resolution;
+    }
+
+    DefaultMavenDependencyResolver resolver = new DefaultMavenDependencyResolver(this, markerManager);
+    mavenRequest = getConfiguredExecutionRequest(context, newState, newFacade.getPom(),
+        newFacade.getResolverConfiguration());
+    mavenRequest.getProjectBuildingRequest().setProject(newFacade.getMavenProject());
+    mavenRequest.getProjectBuildingRequest().setResolveDependencies(true);
+    resolution.dependencyResult = resolver.resolveProjectDependencies(newFacade, mavenRequest,
+        resolution.requirements, monitor);
+    resolution.resolver = resolver;
+
+    return resolution;
+  }
+
+  /**
+   * Applies lifecycle mapping and markers calculated by {@link #resolveProjectDependencies} to the project. Must be
+   * called by the refresh thread, which holds the refresh scheduling rule.
+   */
+  private void applyProjectResolution(MutableProjectRegistry newState, DependencyResolutionContext context,
+      MavenProjectFacade newFacade, ProjectResolution resolution, IProgressMonitor monitor) throws CoreException {
+    LifecycleMappingResult mappingResult = resolution.mappingResult;
 
     newFacade.setLifecycleMappingId(mappingResult.getLifecycleMappingId());
     newFacade.setMojoExecutionMapping(mappingResult.getMojoExecutionMapping());
@@ -488,11 +614,34 @@ public class ProjectRegistryManager {
     newFacade.setSessionProperty(MavenProjectFacade.PROP_LIFECYCLE_MAPPING, mappingResult.getLifecycleMapping());
     newFacade.setSessionProperty(MavenProjectFacade.PROP_CONFIGURATORS, mappingResult.getProjectConfigurators());
 
+    for(CoreException e : resolution.executionPlanErrors) {
+      markerManager.addErrorMarkers(newFacade.getPom(), IMavenConstants.MARKER_POM_LOADING_ID, e);
+    }
+
     markerManager.deleteMarkers(newFacade.getPom(), IMavenConstants.MARKER_LIFECYCLEMAPPING_ID);
     if(mappingResult.hasProblems()) {
       markerManager.addErrorMarkers(newFacade.getPom(), IMavenConstants.MARKER_LIFECYCLEMAPPING_ID,
           mappingResult.getProblems());
     }
+
+    if(resolution.resolver != null) {
+      resolution.resolver.addMarkers(newFacade, resolution.dependencyResult);
+    } else {
+      AbstractMavenDependencyResolver resolver = getMavenDependencyResolver(newFacade, monitor);
+      resolver.setContextProjectRegistry(newState);
+      try {
+        MavenExecutionRequest mavenRequest = getConfiguredExecutionRequest(context, newState, newFacade.getPom(),
+            newFacade.getResolverConfiguration());
+        mavenRequest.getProjectBuildingRequest().setProject(newFacade.getMavenProject());
+        mavenRequest.getProjectBuildingRequest().setResolveDependencies(true);
+        resolver.resolveProjectDependencies(newFacade, mavenRequest, resolution.capabilities,
+            resolution.requirements, monitor);
+      } finally {
+        resolver.setContextProjectRegistry(null);
+      }
+    }
+
+    newFacade.setMavenProjectArtifacts();
   }
 
   static <T> Set<T> diff(Set<T> a, Set<T> b) {
@@ -584,32 +733,45 @@ public class ProjectRegistryManager {
     // don't cache maven session
     getMaven().detachFromSession(mavenProject);
 
-    Map<String, List<MojoExecution>> executionPlans = calculateExecutionPlans(context, state, pom, mavenProject,
-        resolverConfiguration, monitor);
-
-    // create and return new project facade
+    // execution plans are calculated with project dependencies, see #resolveProjectDependencies
     MavenProjectFacade mavenProjectFacade = new MavenProjectFacade(ProjectRegistryManager.this, pom, mavenProject,
-        executionPlans, resolverConfiguration);
+        null, resolverConfiguration);
 
     return mavenProjectFacade;
   }
 
+  /**
+   * Calculates project execution plans. Calculation errors are added to <code>errors</code> if it is not null,
+   * otherwise they are reported as pom loading markers right away.
+   */
   private Map<String, List<MojoExecution>> calculateExecutionPlans(DependencyResolutionContext context,
       IProjectRegistry state, IFile pom, MavenProject mavenProject, ResolverConfiguration resolverConfiguration,
-      IProgressMonitor monitor) {
-    Map<String, List<MojoExecution>> executionPlans = new LinkedHashMap<String, List<MojoExecution>>();
+      List<CoreException> errors, IProgressMonitor monitor) {
+    String key = ExecutionPlanCache.getKey(mavenProject, resolverConfiguration);
+    Map<String, List<MojoExecution>> executionPlans = key != null ? executionPlanCache.get(key) : null;
+    if(executionPlans != null) {
+      return executionPlans;
+    }
+    executionPlans = new LinkedHashMap<String, List<MojoExecution>>();
     executionPlans.put(LIFECYCLE_CLEAN,
-        calculateExecutionPlan(context, state, pom, mavenProject, resolverConfiguration, LIFECYCLE_CLEAN, monitor));
+        calculateExecutionPlan(context, state, pom, mavenProject, resolverConfiguration, LIFECYCLE_CLEAN, errors,
+            monitor));
     executionPlans.put(LIFECYCLE_DEFAULT,
-        calculateExecutionPlan(context, state, pom, mavenProject, resolverConfiguration, LIFECYCLE_DEFAULT, monitor));
+        calculateExecutionPlan(context, state, pom, mavenProject, resolverConfiguration, LIFECYCLE_DEFAULT, errors,
+            monitor));
     executionPlans.put(LIFECYCLE_SITE,
-        calculateExecutionPlan(context, state, pom, mavenProject, resolverConfiguration, LIFECYCLE_SITE, monitor));
+        calculateExecutionPlan(context, state, pom, mavenProject, resolverConfiguration, LIFECYCLE_SITE, errors,
+            monitor));
+    if(key != null && !executionPlans.containsValue(null)) {
+      // failed plans are not shared, calculation errors are reported on each project's pom
+      executionPlanCache.put(key, executionPlans);
+    }
     return executionPlans;
   }
 
   private List<MojoExecution> calculateExecutionPlan(DependencyResolutionContext context, IProjectRegistry state,
       IFile pom, MavenProject mavenProject, ResolverConfiguration resolverConfiguration, String lifecycle,
-      IProgressMonitor monitor) {
+      List<CoreException> errors, IProgressMonitor monitor) {
     List<MojoExecution> mojoExecutions = null;
     try {
       MavenExecutionRequest mavenRequest = getConfiguredExecutionRequest(context, state, pom, resolverConfiguration);
@@ -618,7 +780,11 @@ public class ProjectRegistryManager {
           false, monitor);
       mojoExecutions = executionPlan.getMojoExecutions();
     } catch(CoreException e) {
-      markerManager.addErrorMarkers(pom, IMavenConstants.MARKER_POM_LOADING_ID, e);
+      if(errors != null) {
+        errors.add(e);
+      } else {
+        markerManager.addErrorMarkers(pom, IMavenConstants.MARKER_POM_LOADING_ID, e);
+      }
     }
     return mojoExecutions;
   }
@@ -636,32 +802,33 @@ public class ProjectRegistryManager {
   }
 
   public void addMavenProjectChangedListener(IMavenProjectChangedListener listener) {
-    synchronized (projectChangeListeners) {
-      projectChangeListeners.add(listener);
-    }
+    addMavenProjectChangedListener(listener, false);
+  }
+
+  /**
+   * Registers project change listener. Asynchronous listeners are notified from a background job after the workspace
+   * lock is released, see {@link ProjectChangeDispatcher}.
+   */
+  public void addMavenProjectChangedListener(IMavenProjectChangedListener listener, boolean async) {
+    projectChangeDispatcher.addListener(listener, async);
   }
 
   public void removeMavenProjectChangedListener(IMavenProjectChangedListener listener) {
     if(listener == null) {
       return;
     }
-    synchronized (projectChangeListeners) {
-      projectChangeListeners.remove(listener);
-    }
+    projectChangeDispatcher.removeListener(listener);
   }
 
   public void notifyProjectChangeListeners(List<MavenProjectChangedEvent> events, IProgressMonitor monitor) {
-    if(events.size() > 0) {
-      MavenProjectChangedEvent[] eventsArray = events.toArray(new MavenProjectChangedEvent[events.size()]);
-      ArrayList<IMavenProjectChangedListener> listeners = new ArrayList<IMavenProjectChangedListener>();
-      synchronized(this.projectChangeListeners) {
-        listeners.addAll(this.projectChangeListeners);
-      }
-      listeners.addAll(ExtensionReader.readProjectChangedEventListenerExtentions());
-      for(IMavenProjectChangedListener listener : listeners) {
-        listener.mavenProjectChanged(eventsArray, monitor);
-      }
-    }
+    projectChangeDispatcher.notify(events, monitor);
+  }
+
+  /**
+   * Cancels and waits for background notification of asynchronous project change listeners.
+   */
+  public void dispose() {
+    projectChangeDispatcher.dispose();
   }
 
   public MavenProjectFacade getMavenProject(String groupId, String artifactId, String version) {
@@ -698,6 +865,25 @@ public class ProjectRegistryManager {
     return projectRegistry.getProjectFacade(getPom(project));
   }
 
+  /**
+   * Returns facades from the collection that need to be re-read from disk, i.e. calls
+   * {@link IMavenProjectFacade#isStale()} for each facade. Modification stamps are read from the workspace resource
+   * tree, so checking facades does not access the file system.
+   */
+  public List<IMavenProjectFacade> getStaleFacades(Collection<? extends IMavenProjectFacade> facades) {
+    List<IMavenProjectFacade> staleFacades = new ArrayList<IMavenProjectFacade>();
+    for(IMavenProjectFacade facade : facades) {
+      if(facade.isStale()) {
+        staleFacades.add(facade);
+      }
+    }
+    return staleFacades;
+  }
+
+  MavenProjectCache getMavenProjectCache() {
+    return mavenProjectCache;
+  }
+
   public boolean setResolverConfiguration(IProject project, ResolverConfiguration configuration) {
     MavenProjectFacade projectFacade = create(project, new NullProgressMonitor());
     if(projectFacade!=null) {
@@ -791,20 +977,37 @@ public class ProjectRegistryManager {
     List<MavenProjectChangedEvent> events = projectRegistry.apply(newState);
     stateReader.writeWorkspaceState(projectRegistry);
     notifyProjectChangeListeners(events, monitor);
+
+    // listeners have seen MavenProject of the new facades, from now on it can be evicted
+    for(MavenProjectChangedEvent event : events) {
+      MavenProjectFacade facade = (MavenProjectFacade) event.getMavenProject();
+      if(facade != null) {
+        mavenProjectCache.add(facade);
+      }
+    }
   }
 
   IMaven getMaven() {
     return maven;
   }
 
+  ProjectRefreshQueue getRefreshQueue() {
+    return refreshQueue;
+  }
+
   public MojoExecution setupMojoExecution(MavenProjectFacade projectFacade, MojoExecution mojoExecution,
       IProgressMonitor monitor) throws CoreException {
     MavenExecutionRequest request = createExecutionRequest(projectFacade.getPom(),
         projectFacade.getResolverConfiguration(), monitor);
-    MavenSession session = maven.createSession(request, projectFacade.getMavenProject());
-    return maven.setupMojoExecution(session, projectFacade.getMavenProject(), mojoExecution);
+    MavenProject mavenProject = projectFacade.getMavenProject(monitor);
+    MavenSession session = maven.createSession(request, mavenProject);
+    return maven.setupMojoExecution(session, mavenProject, mojoExecution);
   }
 
+  /**
+   * Calculates execution plans of a facade read from the persisted workspace state. Plans of refreshed facades are
+   * calculated during the refresh, see {@link #resolveProjectDependencies}.
+   */
   public Map<String, List<MojoExecution>> calculateExecutionPlans(MavenProjectFacade projectFacade, IProgressMonitor monitor)
       throws CoreException {
     boolean offline = MavenPlugin.getDefault().getMavenConfiguration().isOffline();
@@ -813,6 +1016,6 @@ public class ProjectRegistryManager {
         projectFacade.getResolverConfiguration(), monitor);
     DependencyResolutionContext context = new DependencyResolutionContext(request, executionRequest);
     return calculateExecutionPlans(context, projectRegistry, projectFacade.getPom(),
-        projectFacade.getMavenProject(monitor), projectFacade.getResolverConfiguration(), monitor);
+        projectFacade.getMavenProject(monitor), projectFacade.getResolverConfiguration(), null, monitor);
   }
 }
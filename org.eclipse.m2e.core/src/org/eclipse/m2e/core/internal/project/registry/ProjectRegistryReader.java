@@ -13,13 +13,27 @@ package org.eclipse.m2e.core.internal.project.registry;
 
 import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.CRC32;
 
 import org.osgi.framework.Bundle;
 import org.osgi.framework.BundleContext;
@@ -43,70 +57,209 @@ import org.eclipse.m2e.core.MavenPlugin;
 
 /**
  * Workspace state reader
+ * <p>
+ * Workspace state is persisted as a journal of per-pom records. Each record holds project facade, capabilities and
+ * requirements of one pom, or marks the pom as removed. Records of poms changed by
+ * {@link ProjectRegistry#apply(MutableProjectRegistry)} are appended to the end of the journal, and the journal is
+ * compacted (i.e. rewritten to only contain current records) when it grows much larger than the registry. When the
+ * journal is read, only the last record of each pom is deserialized.
+ * <p>
+ * Journal that cannot be read, was written by different m2e version or uses different format is ignored, which
+ * results in full workspace refresh.
  * 
  * @author Eugene Kuleshov
  */
 public class ProjectRegistryReader {
   private static final Logger log = LoggerFactory.getLogger(ProjectRegistryReader.class);
 
-  private static final String WORKSPACE_STATE = "workspaceState.ser"; //$NON-NLS-1$
+  /**
+   * Whole-registry object stream written by previous versions, only deleted now.
+   */
+  private static final String LEGACY_WORKSPACE_STATE = "workspaceState.ser"; //$NON-NLS-1$
+
+  private static final String WORKSPACE_STATE = "workspaceState.journal"; //$NON-NLS-1$
+
+  private static final int MAGIC = 0x4d32454a; // M2EJ
+
+  private static final int FORMAT_VERSION = 1;
+
+  private static final byte RECORD_PROJECT = 1;
+
+  private static final byte RECORD_REMOVED = 2;
+
+  /**
+   * Journal is compacted when it has more than <code>2 * projects + COMPACT_SLACK</code> records.
+   */
+  private static final int COMPACT_SLACK = 64;
+
+  private static final int MAX_PATH_LENGTH = 0xffff;
+
+  private final File stateLocationDir;
 
   private final File stateFile;
 
   private static PackageAdmin packageAdmin;
 
+  /**
+   * True if the journal on disk matches in-memory registry contents, i.e. it can be appended to.
+   */
+  private boolean journalValid;
+
+  /**
+   * Number of records in the journal
+   */
+  private int recordCount;
+
   public ProjectRegistryReader(File stateLocationDir) {
+    this.stateLocationDir = stateLocationDir;
     this.stateFile = new File(stateLocationDir, WORKSPACE_STATE);
   }
 
-  public ProjectRegistry readWorkspaceState(final ProjectRegistryManager managerImpl) {
+  public synchronized ProjectRegistry readWorkspaceState(final ProjectRegistryManager managerImpl) {
+    new File(stateLocationDir, LEGACY_WORKSPACE_STATE).delete();
+
     if(stateFile.exists()) {
-      final PackageAdmin packageAdmin = getPackageAdmin();
-      ObjectInputStream is = null;
       try {
-        is = new ObjectInputStream(new BufferedInputStream(new FileInputStream(stateFile))) {
-          {
-            enableResolveObject(true);
-          }
-
-          protected Object resolveObject(Object o) throws IOException {
-            if(o instanceof IPathReplace) {
-              return ((IPathReplace) o).getPath();
-            } else if(o instanceof IFileReplace) {
-              return ((IFileReplace) o).getFile();
-            } else if(o instanceof MavenProjectManagerImplReplace) {
-              return managerImpl;
-            }
-            return super.resolveObject(o);
-          }
-
-          protected java.lang.Class<?> resolveClass(java.io.ObjectStreamClass desc) throws IOException,
-              ClassNotFoundException {
-            String symbolicName = (String) readObject();
-            if(symbolicName == null) {
-              return super.resolveClass(desc);
-            }
-            String versionStr = (String) readObject();
-            Version version = Version.parseVersion(versionStr);
-            VersionRange versionRange = new VersionRange(version, true, version, true);
-            Bundle[] bundles = packageAdmin.getBundles(symbolicName, versionRange.toString());
-            if(bundles == null || bundles.length != 1) {
-              throw new ClassNotFoundException("Could not find bundle " + symbolicName + "/" + version //$NON-NLS-1$ //$NON-NLS-2$
-                  + " required to load class " + desc.getName()); //$NON-NLS-1$
-            }
-            return bundles[0].loadClass(desc.getName());
-          };
-        };
-        return (ProjectRegistry) is.readObject();
+        ProjectRegistry state = readJournal(managerImpl);
+        journalValid = state != null;
+        return state;
       } catch(Exception ex) {
         log.error("Can't read workspace state", ex);
-      } finally {
-        IOUtil.close(is);
       }
     }
     return null;
   }
 
+  private ProjectRegistry readJournal(ProjectRegistryManager managerImpl) throws IOException, ClassNotFoundException {
+    // pass 1: find the last record of each pom without deserializing anything
+    Map<String, Long> offsets = new LinkedHashMap<String, Long>();
+    int records = 0;
+    DataInputStream is = new DataInputStream(new BufferedInputStream(new FileInputStream(stateFile)));
+    try {
+      long offset = readHeader(is);
+      if(offset < 0) {
+        log.info("Workspace state was written by different m2e version, ignoring");
+        return null;
+      }
+      long length = stateFile.length();
+      while(offset < length) {
+        long recordOffset = offset;
+        int pathLength = is.readInt();
+        if(pathLength < 0 || pathLength > MAX_PATH_LENGTH) {
+          throw new IOException("Corrupted workspace state at offset " + recordOffset);
+        }
+        byte[] path = new byte[pathLength];
+        is.readFully(path);
+        byte kind = is.readByte();
+        int payloadLength = is.readInt();
+        if(payloadLength < 0) {
+          throw new IOException("Corrupted workspace state at offset " + recordOffset);
+        }
+        is.readInt(); // checksum
+        skipFully(is, payloadLength);
+        offset += 4 + pathLength + 1 + 4 + 4 + payloadLength;
+
+        String pomPath = new String(path, "UTF-8"); //$NON-NLS-1$
+        if(kind == RECORD_REMOVED) {
+          offsets.remove(pomPath);
+        } else if(kind == RECORD_PROJECT) {
+          offsets.remove(pomPath); // keep the order of the last records
+          offsets.put(pomPath, Long.valueOf(recordOffset));
+        } else {
+          throw new IOException("Unknown workspace state record kind " + kind);
+        }
+        records++ ;
+      }
+    } finally {
+      IOUtil.close(is);
+    }
+
+    // pass 2: deserialize current records
+    ProjectRegistry state = new ProjectRegistry();
+    RandomAccessFile raf = new RandomAccessFile(stateFile, "r"); //$NON-NLS-1$
+    try {
+      for(Map.Entry<String, Long> entry : offsets.entrySet()) {
+        raf.seek(entry.getValue().longValue());
+        raf.skipBytes(raf.readInt() + 1);
+        byte[] payload = new byte[raf.readInt()];
+        int checksum = raf.readInt();
+        raf.readFully(payload);
+        if(checksum != checksum(payload)) {
+          throw new IOException("Corrupted workspace state record " + entry.getKey());
+        }
+        readProject(state, payload, managerImpl);
+      }
+    } finally {
+      raf.close();
+    }
+
+    recordCount = records;
+    return state;
+  }
+
+  @SuppressWarnings("unchecked")
+  private void readProject(ProjectRegistry state, byte[] payload, ProjectRegistryManager managerImpl)
+      throws IOException, ClassNotFoundException {
+    ObjectInputStream is = newObjectInputStream(new ByteArrayInputStream(payload), managerImpl);
+    try {
+      IFile pom = (IFile) is.readObject();
+      MavenProjectFacade facade = (MavenProjectFacade) is.readObject();
+      Set<Capability> capabilities = (Set<Capability>) is.readObject();
+      Set<RequiredCapability> requirements = (Set<RequiredCapability>) is.readObject();
+      state.restoreProject(pom, facade, capabilities, requirements);
+    } finally {
+      IOUtil.close(is);
+    }
+  }
+
+  /**
+   * Reads and validates journal header.
+   * 
+   * @return header length or -1 if the journal was written by different format or m2e version
+   */
+  private static long readHeader(DataInputStream is) throws IOException {
+    if(is.readInt() != MAGIC || is.readInt() != FORMAT_VERSION) {
+      return -1;
+    }
+    int versionLength = is.readInt();
+    if(versionLength < 0 || versionLength > MAX_PATH_LENGTH) {
+      return -1;
+    }
+    byte[] version = new byte[versionLength];
+    is.readFully(version);
+    if(!MavenPlugin.getQualifiedVersion().equals(new String(version, "UTF-8"))) { //$NON-NLS-1$
+      return -1;
+    }
+    return 4 + 4 + 4 + version.length;
+  }
+
+  private static void writeHeader(DataOutputStream os) throws IOException {
+    os.writeInt(MAGIC);
+    os.writeInt(FORMAT_VERSION);
+    byte[] version = MavenPlugin.getQualifiedVersion().getBytes("UTF-8"); //$NON-NLS-1$
+    os.writeInt(version.length);
+    os.write(version);
+  }
+
+  private static void skipFully(InputStream is, long n) throws IOException {
+    while(n > 0) {
+      long skipped = is.skip(n);
+      if(skipped <= 0) {
+        if(is.read() < 0) {
+          throw new EOFException();
+        }
+        skipped = 1;
+      }
+      n -= skipped;
+    }
+  }
+
+  private static int checksum(byte[] payload) {
+    CRC32 crc = new CRC32();
+    crc.update(payload);
+    return (int) crc.getValue();
+  }
+
   private static synchronized PackageAdmin getPackageAdmin() {
     // TODO inject dependencies already!
     if(packageAdmin == null) {
@@ -117,62 +270,199 @@ public class ProjectRegistryReader {
     return packageAdmin;
   }
 
-  public void writeWorkspaceState(ProjectRegistry state) {
+  /**
+   * Persists changes of the registry since the last invocation of this method. Appends records of changed poms to the
+   * journal, or rewrites the journal if it has not been read/written yet or has become too large.
+   */
+  public synchronized void writeWorkspaceState(ProjectRegistry state) {
+    try {
+      boolean compact;
+      List<Record> records = new ArrayList<Record>();
+      synchronized(state) { // see MNGECLIPSE-860
+        Set<IFile> poms = state.takeChangedPoms();
+        Set<IFile> allPoms = state.getPersistentPoms();
+        compact = !journalValid || recordCount + poms.size() > 2 * allPoms.size() + COMPACT_SLACK;
+        for(IFile pom : compact ? allPoms : poms) {
+          records.add(newRecord(state, pom));
+        }
+      }
+
+      if(compact) {
+        compact(records);
+      } else if(!records.isEmpty()) {
+        append(records);
+      }
+    } catch(Exception ex) {
+      journalValid = false;
+      log.error("Can't write workspace state", ex);
+    }
+  }
+
+  private Record newRecord(ProjectRegistry state, IFile pom) throws IOException {
+    MavenProjectFacade facade = state.getProjectFacade(pom);
+    Set<Capability> capabilities = state.getProjectCapabilities(pom);
+    Set<RequiredCapability> requirements = state.getProjectRequirements(pom);
+    String path = pom.getFullPath().toPortableString();
+    if(facade == null && capabilities == null && requirements == null) {
+      return new Record(path, RECORD_REMOVED, new byte[0]);
+    }
+    ByteArrayOutputStream buf = new ByteArrayOutputStream();
+    ObjectOutputStream os = newObjectOutputStream(buf);
+    try {
+      os.writeObject(pom);
+      os.writeObject(facade);
+      os.writeObject(capabilities);
+      os.writeObject(requirements);
+    } finally {
+      IOUtil.close(os);
+    }
+    return new Record(path, RECORD_PROJECT, buf.toByteArray());
+  }
+
+  private void append(List<Record> records) throws IOException {
+    DataOutputStream os = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(stateFile, true)));
+    try {
+      writeRecords(os, records);
+    } finally {
+      IOUtil.close(os);
+    }
+    recordCount += records.size();
+  }
+
+  private void compact(List<Record> records) throws IOException {
+    File tmpFile = new File(stateLocationDir, WORKSPACE_STATE + ".tmp"); //$NON-NLS-1$
+    DataOutputStream os = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmpFile)));
+    try {
+      writeHeader(os);
+      writeRecords(os, records);
+    } finally {
+      IOUtil.close(os);
+    }
+    if(!tmpFile.renameTo(stateFile)) {
+      // can't rename over existing file on some platforms
+      stateFile.delete();
+      if(!tmpFile.renameTo(stateFile)) {
+        throw new IOException("Could not rename " + tmpFile + " to " + stateFile);
+      }
+    }
+    recordCount = records.size();
+    journalValid = true;
+  }
+
+  private static void writeRecords(DataOutputStream os, List<Record> records) throws IOException {
+    for(Record record : records) {
+      byte[] path = record.pomPath.getBytes("UTF-8"); //$NON-NLS-1$
+      os.writeInt(path.length);
+      os.write(path);
+      os.writeByte(record.kind);
+      os.writeInt(record.payload.length);
+      os.writeInt(checksum(record.payload));
+      os.write(record.payload);
+    }
+  }
+
+  private ObjectOutputStream newObjectOutputStream(OutputStream out) throws IOException {
     final ClassLoader thisClassloader = getClass().getClassLoader();
 
     final PackageAdmin packageAdmin = getPackageAdmin();
 
-    ObjectOutputStream os = null;
-    try {
-      os = new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(stateFile))) {
-        {
-          enableReplaceObject(true);
-        }
+    return new ObjectOutputStream(out) {
+      {
+        enableReplaceObject(true);
+      }
 
-        protected Object replaceObject(Object o) throws IOException {
-          if(o instanceof IPath) {
-            return new IPathReplace((IPath) o);
-          } else if(o instanceof IFile) {
-            return new IFileReplace((IFile) o);
-          } else if(o instanceof ProjectRegistryManager) {
-            return new MavenProjectManagerImplReplace();
-          }
-          return super.replaceObject(o);
+      protected Object replaceObject(Object o) throws IOException {
+        if(o instanceof IPath) {
+          return new IPathReplace((IPath) o);
+        } else if(o instanceof IFile) {
+          return new IFileReplace((IFile) o);
+        } else if(o instanceof ProjectRegistryManager) {
+          return new MavenProjectManagerImplReplace();
         }
+        return super.replaceObject(o);
+      }
 
-        protected void annotateClass(java.lang.Class<?> cl) throws IOException {
-          // if the class is visible through this classloader, assume it will be during reading stream back
-          try {
-            Class<?> target = cl;
-            while(target.isArray()) {
-              target = target.getComponentType();
-            }
-
-            if(target.isPrimitive() || target.equals(thisClassloader.loadClass(target.getName()))) {
-              writeObject(null); // TODO is there a better way?
-              return;
-            }
-          } catch(ClassNotFoundException ex) {
-            // fall through
+      protected void annotateClass(java.lang.Class<?> cl) throws IOException {
+        // if the class is visible through this classloader, assume it will be during reading stream back
+        try {
+          Class<?> target = cl;
+          while(target.isArray()) {
+            target = target.getComponentType();
           }
 
-          // foreign class
-          Bundle bundle = packageAdmin.getBundle(cl);
-          if(bundle != null) {
-            writeObject(bundle.getSymbolicName());
-            writeObject(bundle.getVersion().toString());
+          if(target.isPrimitive() || target.equals(thisClassloader.loadClass(target.getName()))) {
+            writeObject(null); // TODO is there a better way?
+            return;
           }
+        } catch(ClassNotFoundException ex) {
+          // fall through
+        }
+
+        // foreign class
+        Bundle bundle = packageAdmin.getBundle(cl);
+        if(bundle != null) {
+          writeObject(bundle.getSymbolicName());
+          writeObject(bundle.getVersion().toString());
+        }
 
-          // TODO this will likely fail during desirialization
-        };
+        // TODO this will likely fail during desirialization
       };
-      synchronized(state) { // see MNGECLIPSE-860
-        os.writeObject(state);
+    };
+  }
+
+  private static ObjectInputStream newObjectInputStream(InputStream in, final ProjectRegistryManager managerImpl)
+      throws IOException {
+    final PackageAdmin packageAdmin = getPackageAdmin();
+
+    return new ObjectInputStream(in) {
+      {
+        enableResolveObject(true);
       }
-    } catch(Exception ex) {
-      log.error("Can't write workspace state", ex);
-    } finally {
-      IOUtil.close(os);
+
+      protected Object resolveObject(Object o) throws IOException {
+        if(o instanceof IPathReplace) {
+          return ((IPathReplace) o).getPath();
+        } else if(o instanceof IFileReplace) {
+          return ((IFileReplace) o).getFile();
+        } else if(o instanceof MavenProjectManagerImplReplace) {
+          return managerImpl;
+        }
+        return super.resolveObject(o);
+      }
+
+      protected java.lang.Class<?> resolveClass(java.io.ObjectStreamClass desc) throws IOException,
+          ClassNotFoundException {
+        String symbolicName = (String) readObject();
+        if(symbolicName == null) {
+          return super.resolveClass(desc);
+        }
+        String versionStr = (String) readObject();
+        Version version = Version.parseVersion(versionStr);
+        VersionRange versionRange = new VersionRange(version, true, version, true);
+        Bundle[] bundles = packageAdmin.getBundles(symbolicName, versionRange.toString());
+        if(bundles == null || bundles.length != 1) {
+          throw new ClassNotFoundException("Could not find bundle " + symbolicName + "/" + version //$NON-NLS-1$ //$NON-NLS-2$
+              + " required to load class " + desc.getName()); //$NON-NLS-1$
+        }
+        return bundles[0].loadClass(desc.getName());
+      };
+    };
+  }
+
+  /**
+   * Serialized state of one pom
+   */
+  private static final class Record {
+    final String pomPath;
+
+    final byte kind;
+
+    final byte[] payload;
+
+    Record(String pomPath, byte kind, byte[] payload) {
+      this.pomPath = pomPath;
+      this.kind = kind;
+      this.payload = payload;
     }
   }
 
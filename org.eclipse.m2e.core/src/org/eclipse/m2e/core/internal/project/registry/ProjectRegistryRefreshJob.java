@@ -11,7 +11,6 @@
 
 package org.eclipse.m2e.core.internal.project.registry;
 
-import java.util.ArrayList;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
@@ -47,12 +46,10 @@ import org.eclipse.m2e.core.project.MavenUpdateRequest;
 public class ProjectRegistryRefreshJob extends Job implements IResourceChangeListener, IPreferenceChangeListener, IBackgroundProcessingQueue {
   private static final Logger log = LoggerFactory.getLogger(ProjectRegistryRefreshJob.class);
 
-  private static final long SCHEDULE_DELAY = 1000L;
-
   private static final int DELTA_FLAGS = IResourceDelta.CONTENT | IResourceDelta.MOVED_FROM | IResourceDelta.MOVED_TO
   | IResourceDelta.COPIED_FROM | IResourceDelta.REPLACED;
   
-  private final List<MavenUpdateRequest> queue = new ArrayList<MavenUpdateRequest>();
+  private final ProjectRefreshQueue queue;
 
   private final ProjectRegistryManager manager;
   
@@ -62,22 +59,54 @@ public class ProjectRegistryRefreshJob extends Job implements IResourceChangeLis
     super(Messages.ProjectRegistryRefreshJob_title);
     this.manager = manager;
     this.mavenConfiguration = mavenConfiguration;
+    this.queue = manager.getRefreshQueue();
   }
 
   public void refresh(MavenUpdateRequest updateRequest) {
     queue(updateRequest);
-    schedule(SCHEDULE_DELAY);
+    scheduleRefresh();
+  }
+
+  /**
+   * Queued refresh requests of priority poms, for example poms open in an editor, are processed before other
+   * requests. Each call must be matched by a call to {@link #removePriorityPom(IFile)}.
+   */
+  public void addPriorityPom(IFile pom) {
+    queue.addPriorityPom(pom);
+  }
+
+  public void removePriorityPom(IFile pom) {
+    queue.removePriorityPom(pom);
+  }
+
+  private void scheduleRefresh() {
+    long delay = queue.getDelay(System.currentTimeMillis());
+    if(delay < 0) {
+      return;
+    }
+    if(getState() == Job.SLEEPING) {
+      // reschedule with the new delay
+      wakeUp(delay);
+    } else {
+      schedule(delay);
+    }
   }
 
   // Job
   
   public IStatus run(IProgressMonitor monitor) {
-    monitor.beginTask(Messages.ProjectRegistryRefreshJob_task_refreshing, IProgressMonitor.UNKNOWN);
-    ArrayList<MavenUpdateRequest> requests;
-    synchronized(this.queue) {
-      requests = new ArrayList<MavenUpdateRequest>(this.queue);
-      this.queue.clear();
+    long delay = queue.getDelay(System.currentTimeMillis());
+    if(delay < 0) {
+      return Status.OK_STATUS;
     }
+    if(delay > 0) {
+      // more requests arrived since the job was scheduled
+      schedule(delay);
+      return Status.OK_STATUS;
+    }
+
+    monitor.beginTask(Messages.ProjectRegistryRefreshJob_task_refreshing, IProgressMonitor.UNKNOWN);
+    List<MavenUpdateRequest> requests = queue.take();
 
     try {
       MutableProjectRegistry newState = manager.newMutableProjectRegistry();
@@ -99,23 +128,25 @@ public class ProjectRegistryRefreshJob extends Job implements IResourceChangeLis
       } finally {
         newState.close();
       }
+      queue.done();
     } catch(CoreException ex) {
+      queue.done();
       log.error(ex.getMessage(), ex);
     } catch(OperationCanceledException ex) {
+      queue.done();
       log.info("{} was canceled", getClass().getName());
     } catch (StaleMutableProjectRegistryException e) {
-      synchronized(this.queue) {
-        this.queue.addAll(0, requests);
-        if(!this.queue.isEmpty()) {
-          schedule(SCHEDULE_DELAY);
-        }
-      }
+      // requests refreshed synchronously in the meantime are already removed from the queue
+      queue.retry();
     } catch(Exception ex) {
+      queue.done();
       log.error(ex.getMessage(), ex);
     } finally {
       monitor.done();
     }
 
+    scheduleRefresh();
+
     return Status.OK_STATUS;
   }
 
@@ -158,11 +189,7 @@ public class ProjectRegistryRefreshJob extends Job implements IResourceChangeLis
       }
     }
 
-    synchronized(queue) {
-      if(!queue.isEmpty()) {
-        schedule(SCHEDULE_DELAY);
-      }
-    }
+    scheduleRefresh();
   }
 
   private void projectChanged(IResourceDelta delta, Set<IProject> removeProjects, final Set<IProject> refreshProjects)
@@ -195,10 +222,8 @@ public class ProjectRegistryRefreshJob extends Job implements IResourceChangeLis
   }
 
   private void queue(MavenUpdateRequest updateRequest) {
-    synchronized(queue) {
-      queue.add(updateRequest);
-      log.debug("Queued refresh request: {}", updateRequest.toString()); //$NON-NLS-1$
-    }
+    queue.add(updateRequest);
+    log.debug("Queued refresh request: {}", updateRequest.toString()); //$NON-NLS-1$
   }
 
   public void preferenceChange(PreferenceChangeEvent event) {
@@ -211,8 +236,6 @@ public class ProjectRegistryRefreshJob extends Job implements IResourceChangeLis
   }
 
   public boolean isEmpty() {
-    synchronized(queue) {
-      return queue.isEmpty();
-    }
+    return queue.isEmpty();
   }
 }
@@ -15,7 +15,8 @@ import org.eclipse.core.runtime.IProgressMonitor;
 
 public interface IMavenProjectChangedListener {
   /**
-   * This method is called while holding workspace lock.
+   * This method is called while holding workspace lock, unless the listener was registered or contributed as
+   * asynchronous.
    */
   public void mavenProjectChanged(MavenProjectChangedEvent[] events, IProgressMonitor monitor);
 }
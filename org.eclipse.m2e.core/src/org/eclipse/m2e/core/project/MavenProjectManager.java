@@ -35,17 +35,25 @@ import org.eclipse.m2e.core.internal.project.registry.ProjectRegistryRefreshJob;
 public class MavenProjectManager {
 
   public static final String STATE_FILENAME = "workspacestate.properties"; //$NON-NLS-1$
+
+  /**
+   * Binary workspace state read by CLI resolvers that support it, see WorkspaceStateWriter
+   */
+  public static final String BINARY_STATE_FILENAME = "workspacestate.bin"; //$NON-NLS-1$
   
   private final ProjectRegistryManager manager;
 
   private final ProjectRegistryRefreshJob mavenBackgroundJob;
 
   private final File workspaceStateFile;
+
+  private final File workspaceBinaryStateFile;
   
   public MavenProjectManager(ProjectRegistryManager manager, ProjectRegistryRefreshJob mavenBackgroundJob, File stateLocation) {
     this.manager = manager;
     this.mavenBackgroundJob = mavenBackgroundJob;
     this.workspaceStateFile = new File(stateLocation, STATE_FILENAME);
+    this.workspaceBinaryStateFile = new File(stateLocation, BINARY_STATE_FILENAME);
   }
 
   // Maven projects    
@@ -58,6 +66,19 @@ public class MavenProjectManager {
     mavenBackgroundJob.refresh(request);
   }
 
+  /**
+   * Marks the pom as interesting to the user, for example because it is open in an editor. Background refresh of
+   * such poms takes priority over other queued requests. Each call must be matched by a call to
+   * {@link #removePriorityPom(IFile)}.
+   */
+  public void addPriorityPom(IFile pom) {
+    mavenBackgroundJob.addPriorityPom(pom);
+  }
+
+  public void removePriorityPom(IFile pom) {
+    mavenBackgroundJob.removePriorityPom(pom);
+  }
+
   /**
    * Performs requested Maven project update synchronously. In other words, this method 
    * does not return until all affected projects have been updated and 
@@ -73,6 +94,15 @@ public class MavenProjectManager {
     manager.addMavenProjectChangedListener(listener);
   }
 
+  /**
+   * Registers project change listener. Synchronous listeners are notified while holding workspace lock, asynchronous
+   * listeners are notified from a background job, in order, with events received while the listener is busy coalesced
+   * per project.
+   */
+  public void addMavenProjectChangedListener(IMavenProjectChangedListener listener, boolean async) {
+    manager.addMavenProjectChangedListener(listener, async);
+  }
+
   public void removeMavenProjectChangedListener(IMavenProjectChangedListener listener) {
     manager.removeMavenProjectChangedListener(listener);
   }
@@ -127,6 +157,10 @@ public class MavenProjectManager {
     return workspaceStateFile;
   }
 
+  public File getWorkspaceBinaryStateFile() {
+    return workspaceBinaryStateFile;
+  }
+
   /**
    * PROVISIONAL
    */
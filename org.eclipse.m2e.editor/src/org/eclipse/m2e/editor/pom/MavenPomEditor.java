@@ -163,6 +163,11 @@ public class MavenPomEditor extends FormEditor implements IResourceChangeListene
 
   private boolean resourceChangeEventSkip = false;
 
+  /**
+   * Pom registered as priority pom for background refresh, null if none
+   */
+  private IFile priorityPom;
+
   public MavenPomEditor() {
     modelManager = StructuredModelManager.getModelManager();
   }
@@ -743,6 +748,10 @@ public class MavenPomEditor extends FormEditor implements IResourceChangeListene
   public void dispose() {
     MavenProjectManager projectManager = MavenPlugin.getDefault().getMavenProjectManager();
     projectManager.removeMavenProjectChangedListener(this);
+    if(priorityPom != null) {
+      projectManager.removePriorityPom(priorityPom);
+      priorityPom = null;
+    }
     
     new UIJob(Messages.MavenPomEditor_job_disposing) {
       @SuppressWarnings("synthetic-access")
@@ -804,6 +813,11 @@ public class MavenPomEditor extends FormEditor implements IResourceChangeListene
     reloadMavenProjectCache();
     MavenProjectManager projectManager = MavenPlugin.getDefault().getMavenProjectManager();
     projectManager.addMavenProjectChangedListener(this);
+    if(editorInput instanceof IFileEditorInput) {
+      // refresh the project shown in the editor before other projects
+      priorityPom = ((IFileEditorInput) editorInput).getFile();
+      projectManager.addPriorityPom(priorityPom);
+    }
 
     activationListener = new MavenPomActivationListener(site.getWorkbenchWindow().getPartService());
   }
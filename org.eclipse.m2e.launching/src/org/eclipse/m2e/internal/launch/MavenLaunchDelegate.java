@@ -140,6 +140,8 @@ public class MavenLaunchDelegate extends JavaLaunchDelegate implements MavenLaun
     if (shouldResolveWorkspaceArtifacts(configuration)) {
       File state = MavenPlugin.getDefault().getMavenProjectManager().getWorkspaceStateFile();
       sb.append("-Dm2eclipse.workspace.state=").append(quote(state.getAbsolutePath())); //$NON-NLS-1$
+      File binaryState = MavenPlugin.getDefault().getMavenProjectManager().getWorkspaceBinaryStateFile();
+      sb.append(" -Dm2e.workspace.state.binary=").append(quote(binaryState.getAbsolutePath())); //$NON-NLS-1$
     }
 
     // maven.home